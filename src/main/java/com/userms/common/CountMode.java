@@ -0,0 +1,34 @@
+package com.userms.common;
+
+import com.userms.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * 分頁查詢的總數計算方式
+ * <ul>
+ *     <li>{@code NONE}：不計算總數，只回傳是否還有下一頁（適合無限捲動）</li>
+ *     <li>{@code ESTIMATE}：回傳定期刷新的快取總數，不在請求中執行 COUNT</li>
+ *     <li>{@code EXACT}：每次請求執行 COUNT 取得精確總數（預設，與既有行為相同）</li>
+ * </ul>
+ */
+public enum CountMode {
+
+    NONE,
+    ESTIMATE,
+    EXACT;
+
+    /**
+     * 解析請求參數（不區分大小寫），空白時使用 EXACT
+     */
+    public static CountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("無效的 count 參數，可用值為 none、estimate、exact", ErrorCodes.INVALID_PARAMETER_TYPE);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.userms.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游標分頁響應格式
+ * 以 nextCursor 取得下一頁，不計算總數也不使用 OFFSET，深層分頁的成本與第一頁相同
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "游標分頁響應格式")
+public class CursorResult<T> {
+
+    @Schema(description = "當前頁數據內容")
+    private List<T> content;
+
+    @Schema(description = "每頁大小", example = "20")
+    private int size;
+
+    @Schema(description = "下一頁游標（最後一頁時不返回）", example = "MjAyNC0wMS0wMVQxMDozMDowMHw1NTBlODQwMA")
+    private String nextCursor;
+
+    @Schema(description = "是否還有下一頁", example = "true")
+    private boolean hasNext;
+
+    private CursorResult(List<T> content, int size, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public static <T> CursorResult<T> of(List<T> content, int size, String nextCursor) {
+        return new CursorResult<>(content, size, nextCursor, nextCursor != null);
+    }
+}
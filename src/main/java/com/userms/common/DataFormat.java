@@ -0,0 +1,42 @@
+package com.userms.common;
+
+import com.userms.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * 批次匯入／匯出的資料格式
+ */
+public enum DataFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType + ";charset=UTF-8");
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * 解析請求參數（不區分大小寫）
+     */
+    public static DataFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BusinessException("無效的資料格式，可用值為 ndjson、csv", ErrorCodes.INVALID_PARAMETER_TYPE);
+        }
+    }
+}
@@ -17,18 +17,26 @@ public final class ErrorCodes {
     public static final String INVALID_CREDENTIALS = "INVALID_CREDENTIALS";
     public static final String USER_INACTIVE = "USER_INACTIVE";
     public static final String USER_NOT_FOUND = "USER_NOT_FOUND";
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "TOO_MANY_LOGIN_ATTEMPTS";
     
     // 請求相關錯誤
     public static final String INVALID_REQUEST_FORMAT = "INVALID_REQUEST_FORMAT";
     public static final String INVALID_PARAMETER_TYPE = "INVALID_PARAMETER_TYPE";
     public static final String VALIDATION_ERROR = "VALIDATION_ERROR";
+    public static final String INVALID_CURSOR = "INVALID_CURSOR";
     public static final String INTERNAL_SERVER_ERROR = "INTERNAL_SERVER_ERROR";
+    public static final String SERVICE_BUSY = "SERVICE_BUSY";
+    public static final String DATA_INTEGRITY_VIOLATION = "DATA_INTEGRITY_VIOLATION";
+    public static final String ACCESS_DENIED = "ACCESS_DENIED";
     
     // 角色相關錯誤
     public static final String ROLE_NOT_FOUND = "ROLE_NOT_FOUND";
+    public static final String ROLE_NAME_EXISTS = "ROLE_NAME_EXISTS";
+    public static final String ROLE_CODE_EXISTS = "ROLE_CODE_EXISTS";
     public static final String ROLE_ALREADY_ASSIGNED = "ROLE_ALREADY_ASSIGNED";
     public static final String ROLE_NOT_ASSIGNED = "ROLE_NOT_ASSIGNED";
     public static final String PERMISSION_NOT_FOUND = "PERMISSION_NOT_FOUND";
+    public static final String PERMISSION_CODE_EXISTS = "PERMISSION_CODE_EXISTS";
     
     // JWT 相關錯誤
     public static final String INVALID_TOKEN = "INVALID_TOKEN";
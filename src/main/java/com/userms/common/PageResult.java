@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -21,11 +22,14 @@ public class PageResult<T> {
     @Schema(description = "每頁大小", example = "20")
     private int size;
 
-    @Schema(description = "總記錄數", example = "100")
-    private long totalElements;
+    @Schema(description = "總記錄數（count=none 時不返回）", example = "100")
+    private Long totalElements;
 
-    @Schema(description = "總頁數", example = "5")
-    private int totalPages;
+    @Schema(description = "總頁數（count=none 時不返回）", example = "5")
+    private Integer totalPages;
+
+    @Schema(description = "總數是否為估計值（僅 count=estimate 時返回）", example = "true")
+    private Boolean estimated;
 
     @Schema(description = "是否為第一頁", example = "true")
     private boolean first;
@@ -33,17 +37,23 @@ public class PageResult<T> {
     @Schema(description = "是否為最後一頁", example = "false")
     private boolean last;
 
+    @Schema(description = "是否還有下一頁", example = "true")
+    private boolean hasNext;
+
     @Schema(description = "是否為空", example = "false")
     private boolean empty;
 
-    private PageResult(List<T> content, int page, int size, long totalElements, int totalPages, boolean first, boolean last, boolean empty) {
+    private PageResult(List<T> content, int page, int size, Long totalElements, Integer totalPages, Boolean estimated,
+                       boolean first, boolean last, boolean empty) {
         this.content = content;
         this.page = page;
         this.size = size;
         this.totalElements = totalElements;
         this.totalPages = totalPages;
+        this.estimated = estimated;
         this.first = first;
         this.last = last;
+        this.hasNext = !last;
         this.empty = empty;
     }
 
@@ -54,6 +64,7 @@ public class PageResult<T> {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
+                null,
                 page.isFirst(),
                 page.isLast(),
                 page.isEmpty()
@@ -66,10 +77,36 @@ public class PageResult<T> {
         boolean last = page >= totalPages - 1;
         boolean empty = content == null || content.isEmpty();
 
-        return new PageResult<>(content, page, size, totalElements, totalPages, first, last, empty);
+        return new PageResult<>(content, page, size, totalElements, totalPages, null, first, last, empty);
+    }
+
+    /**
+     * 不含總數的分頁結果，是否為最後一頁由多查一筆判斷
+     */
+    public static <T> PageResult<T> of(List<T> content, Slice<?> slice) {
+        boolean empty = content == null || content.isEmpty();
+        return new PageResult<>(content, slice.getNumber(), slice.getSize(), null, null, null,
+                slice.isFirst(), !slice.hasNext(), empty);
+    }
+
+    /**
+     * 以估計總數組成的分頁結果
+     * 估計值可能落後於實際資料，因此至少調整為目前已看到的筆數；到達最後一頁時總數即為精確值
+     */
+    public static <T> PageResult<T> estimated(List<T> content, Slice<?> slice, long estimatedTotal) {
+        int size = slice.getSize();
+        int contentSize = content == null ? 0 : content.size();
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + contentSize + (slice.hasNext() ? 1 : 0)
+                : contentSize;
+        long totalElements = slice.hasNext() ? Math.max(estimatedTotal, seen) : seen;
+        int totalPages = size > 0 ? (int) Math.ceil((double) totalElements / size) : 1;
+
+        return new PageResult<>(content, slice.getNumber(), size, totalElements, totalPages, true,
+                slice.isFirst(), !slice.hasNext(), contentSize == 0);
     }
 
     public static <T> PageResult<T> empty() {
-        return new PageResult<>(List.of(), 0, 0, 0, 0, true, true, true);
+        return new PageResult<>(List.of(), 0, 0, 0L, 0, null, true, true, true);
     }
-}
\ No newline at end of file
+}
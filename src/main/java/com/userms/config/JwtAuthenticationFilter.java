@@ -1,6 +1,9 @@
 package com.userms.config;
 
-import com.userms.utils.JwtUtil;
+import com.userms.security.JwtPrincipal;
+import com.userms.security.JwtTokenCache;
+import com.userms.security.TokenRevocationService;
+import com.userms.utils.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +11,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,16 +19,30 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtTokenCache jwtTokenCache;
+    private final TokenRevocationService tokenRevocationService;
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String DEFAULT_ROLE = "USER";
+    private static final GrantedAuthority DEFAULT_AUTHORITY = new SimpleGrantedAuthority(ROLE_PREFIX + DEFAULT_ROLE);
+    private static final List<GrantedAuthority> DEFAULT_AUTHORITIES = List.of(DEFAULT_AUTHORITY);
+
+    /**
+     * 授權物件快取：角色與權限代碼數量有限，同一代碼在所有請求間共用同一個實例
+     */
+    private final ConcurrentMap<String, GrantedAuthority> roleAuthorities = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, GrantedAuthority> permissionAuthorities = new ConcurrentHashMap<>();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -41,22 +59,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             final String token = authorizationHeader.substring(BEARER_PREFIX.length());
 
-            if (Boolean.FALSE.equals(jwtUtil.isValidFormat(token))) {
-                log.warn("Invalid JWT token format");
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            final String username = jwtUtil.getUsernameFromToken(token);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // 先查快取，未命中才進行單次解析與簽名驗證
+                VerifiedToken verified = jwtTokenCache.verify(token);
+                String username = verified.subject();
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                if (Boolean.TRUE.equals(jwtUtil.validateToken(token, username))) {
+                if (tokenRevocationService.isRevoked(verified)) {
+                    log.debug("JWT token has been revoked for user: {}", username);
+                } else if (username != null) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
-                                    username,
+                                    new JwtPrincipal(verified.userId(), username),
                                     null,
-                                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                                    buildAuthorities(verified)
                             );
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -64,7 +79,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     log.debug("JWT authentication successful for user: {}", username);
                 } else {
-                    log.warn("JWT token validation failed for user: {}", username);
+                    log.warn("JWT token has no subject");
                 }
             }
         } catch (Exception e) {
@@ -73,4 +88,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * 由 Token Claims 建立授權列表，不查詢資料庫
+     * 一律包含預設的 ROLE_USER；舊版 Token 未攜帶角色資訊或角色列表為空時只有 ROLE_USER
+     */
+    private List<GrantedAuthority> buildAuthorities(VerifiedToken verified) {
+        if (!verified.hasAuthorities()) {
+            return DEFAULT_AUTHORITIES;
+        }
+
+        List<String> roles = verified.roles();
+        List<String> permissions = verified.permissions() != null ? verified.permissions() : List.of();
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size() + permissions.size() + 1);
+        authorities.add(DEFAULT_AUTHORITY);
+        for (String role : roles) {
+            if (DEFAULT_ROLE.equals(role)) {
+                continue;
+            }
+            authorities.add(roleAuthorities.computeIfAbsent(role, code -> new SimpleGrantedAuthority(ROLE_PREFIX + code)));
+        }
+        for (String permission : permissions) {
+            authorities.add(permissionAuthorities.computeIfAbsent(permission, SimpleGrantedAuthority::new));
+        }
+        return authorities;
+    }
 }
\ No newline at end of file
@@ -1,38 +1,80 @@
 package com.userms.config;
 
+import com.userms.security.PasswordHashCalibrator;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    private static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * 僅限管理員的端點（批次操作、全量匯出），搭配 {@code @PreAuthorize} 使用
+     */
+    public static final String ADMIN_ONLY = "hasRole('ADMIN')";
+
+    /**
+     * 密碼編碼器
+     * 新雜湊值帶 {bcrypt} 前綴，方便日後更換演算法；
+     * 舊的無前綴 BCrypt 雜湊仍可驗證，並在登入時自動升級。
+     * strength 未指定時於啟動時依硬體校準，使單次雜湊不超過目標延遲。
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.strength:0}") int strength,
+            @Value("${app.security.password.target-latency:50ms}") Duration targetLatency,
+            @Value("${app.security.password.min-strength:10}") int minStrength,
+            @Value("${app.security.password.max-strength:14}") int maxStrength,
+            @Value("${app.security.password.calibration-samples:5}") int samples) {
+        int bcryptStrength = strength > 0
+                ? strength
+                : PasswordHashCalibrator.calibrateBCryptStrength(targetLatency, minStrength, maxStrength, samples);
+        log.info("密碼雜湊使用 BCrypt strength {}", bcryptStrength);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        // 既有的雜湊值沒有 {id} 前綴，一律視為 BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(auth -> auth
+                        // 非同步回應（例如串流匯出）完成時的 dispatch，原請求已通過授權
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // 允許訪問 Actuator 健康檢查
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                         // 允許訪問 Swagger/OpenAPI 文檔
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**").permitAll()
                         // 允許訪問認證相關端點
                         .requestMatchers("/auth/register", "/auth/login", "/auth/logout").permitAll()
+                        // 允許下游服務取得 JWT 驗證公鑰
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         // 其他請求需要認證
                         .anyRequest().authenticated()
                 )
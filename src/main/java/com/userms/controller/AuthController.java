@@ -16,6 +16,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -130,6 +131,7 @@ public class AuthController {
                     - 支援使用用戶名或電子郵件登入
                     - 成功登入後會返回 JWT Token
                     - Token 有效期為 24 小時
+                    - 同一帳號或來源 IP 嘗試過於頻繁時回應 429，請依 Retry-After 標頭稍後再試
                     
                     ### 使用方式
                     1. 輸入用戶名或電子郵件
@@ -207,8 +209,9 @@ public class AuthController {
     @PostMapping("/login")
     public ApiResponse<AuthResponseDTO> login(
             @Parameter(description = "用戶登入資訊", required = true)
-            @Valid @RequestBody UserLoginDTO loginDTO) {
-        AuthResponseDTO authResponse = authService.login(loginDTO);
+            @Valid @RequestBody UserLoginDTO loginDTO,
+            HttpServletRequest request) {
+        AuthResponseDTO authResponse = authService.login(loginDTO, request.getRemoteAddr());
         return ApiResponse.success("登入成功", authResponse);
     }
 
@@ -254,9 +257,9 @@ public class AuthController {
                     ## 用戶登出
                     
                     ### 功能說明
-                    - 當前實現為無狀態登出
-                    - 建議前端清除本地存儲的 Token
-                    - 如需強制 Token 失效，可實現 Token 黑名單機制
+                    - 撤銷請求標頭中的 Token，之後使用該 Token 的請求將被拒絕
+                    - 已撤銷的 Token 也無法再用於刷新
+                    - 建議前端同時清除本地存儲的 Token
                     """)
     @ApiResponses({
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -278,7 +281,12 @@ public class AuthController {
             )
     })
     @PostMapping("/logout")
-    public ApiResponse<Void> logout() {
+    public ApiResponse<Void> logout(
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String token = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(token);
         return ApiResponse.success("登出成功");
     }
 
@@ -0,0 +1,39 @@
+package com.userms.controller;
+
+import com.userms.security.JwtKeyManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Tag(name = "🔑 JWT 公鑰", description = "提供下游服務在本地驗證 Token 所需的公鑰")
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyManager jwtKeyManager;
+
+    @Operation(
+            summary = "🔑 取得 JWKS",
+            description = """
+                    ## 取得 JWT 驗證公鑰（JSON Web Key Set）
+                    
+                    ### 功能說明
+                    - 回傳目前所有有效的簽名公鑰，依 Token header 的 `kid` 選擇
+                    - 新金鑰會在啟用前先出現在此清單中，下游服務可安全快取
+                    - 使用 HS256 時不公開任何金鑰，回傳空清單
+                    """
+    )
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyManager.getJwkSet());
+    }
+}
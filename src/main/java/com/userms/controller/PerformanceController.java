@@ -87,9 +87,10 @@ public class PerformanceController {
                     ## @EntityGraph 優化演示 (BEST)
                     
                     ### 優化說明
-                    - 使用 JPA @EntityGraph 注解
-                    - 一次性 JOIN 查詢獲取用戶和角色
-                    - 總查詢次數：1 (最優解)
+                    - 先以 SQL 分頁取得該頁的用戶 ID（含總數）
+                    - 再使用 JPA @EntityGraph 一次性 JOIN 查詢這些用戶和角色
+                    - 總查詢次數：固定 3 次，資料庫只回傳該頁資料
+                    - 避免集合抓取搭配分頁時 Hibernate 在記憶體中分頁
                     
                     ### 優化技術
                     - @EntityGraph 聲明式關聯加載
@@ -107,7 +108,7 @@ public class PerformanceController {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdTime").descending());
         PageResult<UserDTO> result = userPerformanceService.getUsersWithEntityGraph(pageable);
         
-        return ApiResponse.success("@EntityGraph 優化完成 - 只執行了 1 次查詢 (最優！)", result);
+        return ApiResponse.success("@EntityGraph 優化完成 - SQL 分頁 + 單次關聯加載", result);
     }
 
     @Operation(
@@ -1,9 +1,15 @@
 package com.userms.controller;
 
 import com.userms.common.ApiResponse;
+import com.userms.common.CountMode;
+import com.userms.common.CursorResult;
 import com.userms.common.PageResult;
+import com.userms.config.SecurityConfig;
+import com.userms.dto.BulkIdsRequestDTO;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.PermissionCreateDTO;
 import com.userms.dto.PermissionDTO;
+import com.userms.dto.PermissionSearchCriteriaDTO;
 import com.userms.service.PermissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,9 +17,11 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -33,14 +41,24 @@ public class PermissionController {
             @Parameter(description = "頁碼", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每頁數量", example = "10") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "排序字段", example = "resourceName") @RequestParam(defaultValue = "resourceName") String sortBy,
-            @Parameter(description = "排序方向", example = "asc") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "排序方向", example = "asc") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "總數計算方式 (none/estimate/exact)", example = "exact") @RequestParam(defaultValue = "exact") String count) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") 
                 ? Sort.by(sortBy).descending() 
                 : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        PageResult<PermissionDTO> result = permissionService.getAllPermissions(pageable);
+        PageResult<PermissionDTO> result = permissionService.getAllPermissions(pageable, CountMode.from(count));
+        return ApiResponse.success("查詢成功", result);
+    }
+
+    @Operation(summary = "📜 游標分頁獲取權限列表", description = "按創建時間倒序以游標逐頁獲取權限，nextCursor 用於獲取下一頁，不計算總筆數")
+    @GetMapping("/scroll")
+    public ApiResponse<CursorResult<PermissionDTO>> scrollPermissions(
+            @Parameter(description = "游標 (上一頁的 nextCursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20") @RequestParam(defaultValue = "20") int size) {
+        CursorResult<PermissionDTO> result = permissionService.scrollPermissions(cursor, size);
         return ApiResponse.success("查詢成功", result);
     }
 
@@ -48,10 +66,11 @@ public class PermissionController {
     @GetMapping("/active")
     public ApiResponse<PageResult<PermissionDTO>> getActivePermissions(
             @Parameter(description = "頁碼", example = "0") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁數量", example = "10") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁數量", example = "10") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "總數計算方式 (none/estimate/exact)", example = "exact") @RequestParam(defaultValue = "exact") String count) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("resourceName", "actionType").ascending());
-        PageResult<PermissionDTO> result = permissionService.getActivePermissions(pageable);
+        PageResult<PermissionDTO> result = permissionService.getActivePermissions(pageable, CountMode.from(count));
         return ApiResponse.success("查詢成功", result);
     }
 
@@ -70,6 +89,28 @@ public class PermissionController {
         return ApiResponse.success("搜索成功", permissions);
     }
 
+    @Operation(
+            summary = "🧭 進階搜索權限",
+            description = """
+                    ## 依多個條件搜索權限（游標分頁）
+                    
+                    ### 功能說明
+                    - 只套用有提供的條件，每種條件組合使用各自的 SQL 與執行計畫
+                    - permissionCode 為前綴比對，resourceName、actionType、isActive 為完全相符
+                    - createdFrom / createdTo 為建立時間區間
+                    - 固定按創建時間倒序排列，以 nextCursor 獲取下一頁
+                    """)
+    @GetMapping("/advanced-search")
+    public ApiResponse<CursorResult<PermissionDTO>> advancedSearchPermissions(
+            @ParameterObject PermissionSearchCriteriaDTO criteria,
+            @Parameter(description = "游標 (上一頁的 nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        CursorResult<PermissionDTO> result = permissionService.advancedSearchPermissions(criteria, cursor, size);
+        return ApiResponse.success("搜索成功", result);
+    }
+
     @Operation(summary = "📁 根據資源獲取權限", description = "獲取指定資源的所有權限")
     @GetMapping("/resource/{resourceName}")
     public ApiResponse<List<PermissionDTO>> getPermissionsByResource(@PathVariable String resourceName) {
@@ -112,6 +153,30 @@ public class PermissionController {
         return ApiResponse.success("權限刪除成功");
     }
 
+    @Operation(summary = "✅ 批次啟用權限", description = "一次啟用多個權限，每 1000 筆以一次 UPDATE 處理")
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/enable")
+    public ApiResponse<BulkOperationResultDTO> enablePermissions(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = permissionService.enablePermissions(request.getIds());
+        return ApiResponse.success("批次啟用完成", result);
+    }
+
+    @Operation(summary = "❌ 批次停用權限", description = "一次停用多個權限，每 1000 筆以一次 UPDATE 處理")
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/disable")
+    public ApiResponse<BulkOperationResultDTO> disablePermissions(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = permissionService.disablePermissions(request.getIds());
+        return ApiResponse.success("批次停用完成", result);
+    }
+
+    @Operation(summary = "🗑️ 批次刪除權限", description = "一次永久刪除多個權限，仍有角色使用的權限列於 rejected 不刪除")
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @DeleteMapping("/bulk")
+    public ApiResponse<BulkOperationResultDTO> deletePermissions(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = permissionService.deletePermissions(request.getIds());
+        return ApiResponse.success("批次刪除完成", result);
+    }
+
     @Operation(summary = "📂 獲取資源名稱列表", description = "獲取所有不重複的資源名稱")
     @GetMapping("/resources")
     public ApiResponse<List<String>> getResourceNames() {
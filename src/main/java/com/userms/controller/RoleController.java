@@ -1,9 +1,19 @@
 package com.userms.controller;
 
 import com.userms.common.ApiResponse;
+import com.userms.common.CountMode;
+import com.userms.common.CursorResult;
 import com.userms.common.PageResult;
+import com.userms.config.SecurityConfig;
+import com.userms.dto.BulkIdsRequestDTO;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.RoleCreateDTO;
 import com.userms.dto.RoleDTO;
+import com.userms.dto.RoleMembersRequestDTO;
+import com.userms.dto.RoleMembersResultDTO;
+import com.userms.dto.RolePermissionsSyncDTO;
+import com.userms.dto.RolePermissionsSyncResultDTO;
+import com.userms.dto.RoleSearchCriteriaDTO;
 import com.userms.service.RoleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,9 +25,11 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -45,6 +57,7 @@ public class RoleController {
                     - page: 頁碼，從 0 開始
                     - size: 每頁數量，默認 10
                     - sort: 排序字段，支持 createdTime, roleName, roleCode 等
+                    - count: 總數計算方式，none（不計算，僅返回 hasNext）、estimate（定期刷新的估計值）、exact（精確總數，默認）
                     """)
     @GetMapping
     public ApiResponse<PageResult<RoleDTO>> getAllRoles(
@@ -55,14 +68,41 @@ public class RoleController {
             @Parameter(description = "排序字段", example = "createdTime")
             @RequestParam(defaultValue = "createdTime") String sortBy,
             @Parameter(description = "排序方向 (asc/desc)", example = "desc")
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "總數計算方式 (none/estimate/exact)", example = "exact")
+            @RequestParam(defaultValue = "exact") String count) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") 
                 ? Sort.by(sortBy).descending() 
                 : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        PageResult<RoleDTO> result = roleService.getAllRoles(pageable);
+        PageResult<RoleDTO> result = roleService.getAllRoles(pageable, CountMode.from(count));
+        return ApiResponse.success("查詢成功", result);
+    }
+
+    @Operation(
+            summary = "📜 游標分頁獲取角色列表",
+            description = """
+                    ## 以游標（Keyset）方式逐頁獲取角色列表
+                    
+                    ### 功能說明
+                    - 固定按創建時間倒序排列
+                    - 回應中的 nextCursor 用於獲取下一頁，為 null 時表示已無資料
+                    - 不計算總筆數，深度翻頁時效能不會下降
+                    - 原有的頁碼分頁 API 保持不變
+                    
+                    ### 參數說明
+                    - cursor: 上一頁回傳的 nextCursor，第一頁不需傳入
+                    - size: 每頁數量，默認 20
+                    """)
+    @GetMapping("/scroll")
+    public ApiResponse<CursorResult<RoleDTO>> scrollRoles(
+            @Parameter(description = "游標 (上一頁的 nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        CursorResult<RoleDTO> result = roleService.scrollRoles(cursor, size);
         return ApiResponse.success("查詢成功", result);
     }
 
@@ -74,17 +114,19 @@ public class RoleController {
                     ### 功能說明
                     - 只返回啟用狀態的角色
                     - 常用於下拉選單或角色分配
-                    - 支持分頁查詢
+                    - 支持分頁查詢，可用 count 參數略過或估計總數
                     """)
     @GetMapping("/active")
     public ApiResponse<PageResult<RoleDTO>> getActiveRoles(
             @Parameter(description = "頁碼 (從0開始)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每頁數量", example = "10")
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "總數計算方式 (none/estimate/exact)", example = "exact")
+            @RequestParam(defaultValue = "exact") String count) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("roleName").ascending());
-        PageResult<RoleDTO> result = roleService.getActiveRoles(pageable);
+        PageResult<RoleDTO> result = roleService.getActiveRoles(pageable, CountMode.from(count));
         return ApiResponse.success("查詢成功", result);
     }
 
@@ -147,6 +189,28 @@ public class RoleController {
         return ApiResponse.success("搜索成功", roles);
     }
 
+    @Operation(
+            summary = "🧭 進階搜索角色",
+            description = """
+                    ## 依多個條件搜索角色（游標分頁）
+                    
+                    ### 功能說明
+                    - 只套用有提供的條件，每種條件組合使用各自的 SQL 與執行計畫
+                    - roleCode、roleName 為前綴比對（區分大小寫），可使用索引
+                    - isActive 為完全相符，createdFrom / createdTo 為建立時間區間
+                    - 固定按創建時間倒序排列，以 nextCursor 獲取下一頁
+                    """)
+    @GetMapping("/advanced-search")
+    public ApiResponse<CursorResult<RoleDTO>> advancedSearchRoles(
+            @ParameterObject RoleSearchCriteriaDTO criteria,
+            @Parameter(description = "游標 (上一頁的 nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        CursorResult<RoleDTO> result = roleService.advancedSearchRoles(criteria, cursor, size);
+        return ApiResponse.success("搜索成功", result);
+    }
+
     @Operation(
             summary = "➕ 創建新角色",
             description = """
@@ -255,6 +319,55 @@ public class RoleController {
         return ApiResponse.success("角色刪除成功");
     }
 
+    @Operation(
+            summary = "✅ 批次啟用角色",
+            description = """
+                    ## 一次啟用多個角色
+                    
+                    ### 功能說明
+                    - 每 1000 筆以一次查詢與一次 UPDATE 處理
+                    - 已是啟用狀態的角色列於 unchanged，不存在的列於 notFound
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/enable")
+    public ApiResponse<BulkOperationResultDTO> enableRoles(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = roleService.enableRoles(request.getIds());
+        return ApiResponse.success("批次啟用完成", result);
+    }
+
+    @Operation(
+            summary = "❌ 批次停用角色",
+            description = """
+                    ## 一次停用多個角色
+                    
+                    ### 功能說明
+                    - 每 1000 筆以一次查詢與一次 UPDATE 處理
+                    - 已是停用狀態的角色列於 unchanged，不存在的列於 notFound
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/disable")
+    public ApiResponse<BulkOperationResultDTO> disableRoles(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = roleService.disableRoles(request.getIds());
+        return ApiResponse.success("批次停用完成", result);
+    }
+
+    @Operation(
+            summary = "🗑️ 批次刪除角色",
+            description = """
+                    ## 一次永久刪除多個角色
+                    
+                    ### 功能說明
+                    - 同時刪除角色的權限關聯
+                    - 仍有用戶使用的角色不會刪除，列於 rejected
+                    - 不存在的角色列於 notFound
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @DeleteMapping("/bulk")
+    public ApiResponse<BulkOperationResultDTO> deleteRoles(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = roleService.deleteRoles(request.getIds());
+        return ApiResponse.success("批次刪除完成", result);
+    }
+
     @Operation(
             summary = "🔑 分配權限給角色",
             description = """
@@ -298,6 +411,29 @@ public class RoleController {
         return ApiResponse.success("權限撤銷成功");
     }
 
+    @Operation(
+            summary = "🔄 同步角色權限",
+            description = """
+                    ## 以完整的權限代碼列表取代角色目前的權限
+                    
+                    ### 功能說明
+                    - 與目前的權限比較後，只新增缺少的權限、移除多餘的權限
+                    - 所有變更在同一個交易中完成，資料庫往返次數與權限數量無關
+                    - 任一權限代碼不存在時不做任何變更
+                    
+                    ### 參數說明
+                    - permissionCodes: 角色應擁有的全部權限代碼，空列表表示移除全部權限
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PutMapping("/{id}/permissions")
+    public ApiResponse<RolePermissionsSyncResultDTO> syncPermissions(
+            @Parameter(description = "角色 ID", required = true)
+            @PathVariable String id,
+            @Valid @RequestBody RolePermissionsSyncDTO request) {
+        RolePermissionsSyncResultDTO result = roleService.syncPermissions(id, request.getPermissionCodes());
+        return ApiResponse.success("權限同步成功", result);
+    }
+
     @Operation(
             summary = "📝 獲取角色權限列表",
             description = """
@@ -333,4 +469,48 @@ public class RoleController {
         long count = roleService.getUserCountByRole(id);
         return ApiResponse.success("統計成功", count);
     }
-}
\ No newline at end of file
+
+    @Operation(
+            summary = "👥 批次新增角色成員",
+            description = """
+                    ## 為多位用戶分配指定角色
+                    
+                    ### 功能說明
+                    - 已擁有該角色的用戶會略過，不視為錯誤
+                    - 不存在的用戶列於 notFound，不影響其他用戶
+                    - 每 1000 位用戶以少量查詢與批次寫入處理，適合一次分配數萬位用戶
+                    
+                    ### 參數說明
+                    - roleCode: 角色代碼
+                    - userIds: 用戶 ID 列表，單次最多 100000 筆
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/{roleCode}/members")
+    public ApiResponse<RoleMembersResultDTO> addMembers(
+            @Parameter(description = "角色代碼", required = true, example = "ADMIN")
+            @PathVariable String roleCode,
+            @Valid @RequestBody RoleMembersRequestDTO request) {
+        RoleMembersResultDTO result = roleService.addMembers(roleCode, request.getUserIds());
+        return ApiResponse.success("角色成員新增完成", result);
+    }
+
+    @Operation(
+            summary = "🚫 批次移除角色成員",
+            description = """
+                    ## 撤銷多位用戶的指定角色
+                    
+                    ### 功能說明
+                    - 未擁有該角色的用戶會略過，列於 unchanged
+                    - 不存在的用戶列於 notFound，不影響其他用戶
+                    - 每 1000 位用戶以一次批次刪除處理
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @DeleteMapping("/{roleCode}/members")
+    public ApiResponse<RoleMembersResultDTO> removeMembers(
+            @Parameter(description = "角色代碼", required = true, example = "ADMIN")
+            @PathVariable String roleCode,
+            @Valid @RequestBody RoleMembersRequestDTO request) {
+        RoleMembersResultDTO result = roleService.removeMembers(roleCode, request.getUserIds());
+        return ApiResponse.success("角色成員移除完成", result);
+    }
+}
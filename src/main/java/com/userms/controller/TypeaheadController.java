@@ -0,0 +1,76 @@
+package com.userms.controller;
+
+import com.userms.common.ApiResponse;
+import com.userms.common.ErrorCodes;
+import com.userms.dto.TypeaheadSuggestionDTO;
+import com.userms.exception.BusinessException;
+import com.userms.service.TypeaheadIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Tag(name = "⌨️ 輸入提示", description = "用戶名、電子郵件、角色代碼與權限代碼的前綴提示")
+@RestController
+@RequestMapping("/typeahead")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+public class TypeaheadController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    @Operation(
+            summary = "⌨️ 前綴輸入提示",
+            description = """
+                    ## 依前綴取得輸入提示
+                    
+                    ### 功能說明
+                    - 由記憶體前綴索引回應，不查詢資料庫，適合每次按鍵呼叫
+                    - 不區分大小寫，依文字排序回傳前 limit 筆
+                    - 新增、修改、刪除用戶／角色／權限後即時反映
+                    
+                    ### 參數說明
+                    - q: 前綴文字
+                    - types: 查詢的類型，可多選 USERNAME, EMAIL, ROLE_CODE, PERMISSION_CODE，默認全部
+                    - limit: 回傳筆數，默認 10，上限 50
+                    """)
+    @GetMapping
+    public ApiResponse<List<TypeaheadSuggestionDTO>> suggest(
+            @Parameter(description = "前綴文字", required = true, example = "jo")
+            @RequestParam String q,
+            @Parameter(description = "查詢類型 (USERNAME/EMAIL/ROLE_CODE/PERMISSION_CODE)", example = "USERNAME")
+            @RequestParam(required = false) List<String> types,
+            @Parameter(description = "回傳筆數", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TypeaheadSuggestionDTO> suggestions = typeaheadIndex.suggest(
+                q, parseFields(types), Math.max(1, Math.min(limit, MAX_LIMIT)));
+        return ApiResponse.success("查詢成功", suggestions);
+    }
+
+    private Set<TypeaheadIndex.Field> parseFields(List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return EnumSet.allOf(TypeaheadIndex.Field.class);
+        }
+        Set<TypeaheadIndex.Field> fields = EnumSet.noneOf(TypeaheadIndex.Field.class);
+        for (String type : types) {
+            try {
+                fields.add(TypeaheadIndex.Field.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("無效的提示類型: " + type, ErrorCodes.INVALID_PARAMETER_TYPE);
+            }
+        }
+        return fields;
+    }
+}
@@ -1,9 +1,19 @@
 package com.userms.controller;
 
 import com.userms.common.ApiResponse;
+import com.userms.common.CountMode;
+import com.userms.common.CursorResult;
+import com.userms.common.DataFormat;
 import com.userms.common.PageResult;
+import com.userms.config.SecurityConfig;
+import com.userms.dto.BulkIdsRequestDTO;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.UserDTO;
+import com.userms.dto.UserImportResultDTO;
+import com.userms.dto.UserSearchCriteriaDTO;
 import com.userms.dto.UserRegisterDTO;
+import com.userms.service.UserExportService;
+import com.userms.service.UserImportService;
 import com.userms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,11 +25,18 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Tag(name = "👥 用戶管理", description = "用戶資料的 CRUD 操作和角色管理")
@@ -30,6 +47,10 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+
+    private static final int MAX_SEARCH_LIMIT = 1000;
 
     @Operation(
             summary = "📋 獲取用戶列表",
@@ -45,6 +66,7 @@ public class UserController {
                     - page: 頁碼，從 0 開始
                     - size: 每頁數量，默認 10
                     - sort: 排序字段，支持 createdTime, username 等
+                    - count: 總數計算方式，none（不計算，僅返回 hasNext）、estimate（定期刷新的估計值）、exact（精確總數，默認）
                     """)
     @ApiResponses({
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -95,14 +117,41 @@ public class UserController {
             @Parameter(description = "排序字段", example = "createdTime")
             @RequestParam(defaultValue = "createdTime") String sortBy,
             @Parameter(description = "排序方向 (asc/desc)", example = "desc")
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "總數計算方式 (none/estimate/exact)", example = "exact")
+            @RequestParam(defaultValue = "exact") String count) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") 
                 ? Sort.by(sortBy).descending() 
                 : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        PageResult<UserDTO> result = userService.getAllUsers(pageable);
+        PageResult<UserDTO> result = userService.getAllUsers(pageable, CountMode.from(count));
+        return ApiResponse.success("查詢成功", result);
+    }
+
+    @Operation(
+            summary = "📜 游標分頁獲取用戶列表",
+            description = """
+                    ## 以游標（Keyset）方式逐頁獲取用戶列表
+                    
+                    ### 功能說明
+                    - 固定按創建時間倒序排列
+                    - 回應中的 nextCursor 用於獲取下一頁，為 null 時表示已無資料
+                    - 不計算總筆數，深度翻頁時效能不會下降
+                    - 原有的頁碼分頁 API 保持不變
+                    
+                    ### 參數說明
+                    - cursor: 上一頁回傳的 nextCursor，第一頁不需傳入
+                    - size: 每頁數量，默認 20
+                    """)
+    @GetMapping("/scroll")
+    public ApiResponse<CursorResult<UserDTO>> scrollUsers(
+            @Parameter(description = "游標 (上一頁的 nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        CursorResult<UserDTO> result = userService.scrollUsers(cursor, size);
         return ApiResponse.success("查詢成功", result);
     }
 
@@ -137,16 +186,97 @@ public class UserController {
                     ### 搜索特點
                     - 支持模糊匹配
                     - 不區分大小寫
-                    - 返回所有匹配的用戶
+                    - 依相關度排序，回傳前 limit 筆（默認 100，上限 1000）
                     """)
     @GetMapping("/search")
     public ApiResponse<List<UserDTO>> searchUsers(
             @Parameter(description = "搜索關鍵字", required = true, example = "john")
-            @RequestParam String keyword) {
-        List<UserDTO> users = userService.searchUsers(keyword);
+            @RequestParam String keyword,
+            @Parameter(description = "回傳筆數上限", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        List<UserDTO> users = userService.searchUsers(keyword, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
         return ApiResponse.success("搜索成功", users);
     }
 
+    @Operation(
+            summary = "🧭 進階搜索用戶",
+            description = """
+                    ## 依多個條件搜索用戶（游標分頁）
+                    
+                    ### 功能說明
+                    - 只套用有提供的條件，每種條件組合使用各自的 SQL 與執行計畫
+                    - username、email、firstName、lastName 為前綴比對（區分大小寫），可使用索引
+                    - isActive 為完全相符，createdFrom / createdTo 為建立時間區間
+                    - 固定按創建時間倒序排列，以 nextCursor 獲取下一頁
+                    """)
+    @GetMapping("/advanced-search")
+    public ApiResponse<CursorResult<UserDTO>> advancedSearchUsers(
+            @ParameterObject UserSearchCriteriaDTO criteria,
+            @Parameter(description = "游標 (上一頁的 nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁數量", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        CursorResult<UserDTO> result = userService.advancedSearchUsers(criteria, cursor, size);
+        return ApiResponse.success("搜索成功", result);
+    }
+
+    @Operation(
+            summary = "📤 匯出全部用戶",
+            description = """
+                    ## 以串流方式匯出全部用戶（NDJSON 或 CSV）
+                    
+                    ### 功能說明
+                    - 邊讀取邊寫出，伺服器記憶體用量不隨用戶數量增加
+                    - 每批用戶以一次查詢補上角色代碼
+                    - parallelism 大於 1 時依 ID 範圍平行讀取，輸出順序不保證
+                    
+                    ### 參數說明
+                    - format: ndjson（默認）或 csv
+                    - parallelism: 平行讀取數，默認 1
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "匯出格式 (ndjson/csv)", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "平行讀取數", example = "1")
+            @RequestParam(defaultValue = "1") int parallelism) {
+        DataFormat exportFormat = DataFormat.from(format);
+        StreamingResponseBody body = outputStream -> userExportService.export(exportFormat, parallelism, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    @Operation(
+            summary = "📥 批次匯入用戶",
+            description = """
+                    ## 以 NDJSON 或 CSV 批次匯入用戶
+                    
+                    ### 功能說明
+                    - 請求內容直接為檔案內容，邊讀取邊處理
+                    - 欄位驗證規則與註冊相同，未提供 confirmPassword 時視為與 password 相同
+                    - 每批以兩次查詢檢查使用者名稱與郵箱唯一性，並以 JDBC batch 寫入
+                    - 不合格的資料列不會中止匯入，失敗原因列於結果的 errors（最多 1000 筆）
+                    
+                    ### 參數說明
+                    - format: ndjson（默認，每行一個 JSON 物件）或 csv（第一列為標題）
+                    
+                    ### 注意事項
+                    - CSV 必要欄位：username, email, password；可選 confirmPassword, firstName, lastName
+                    - 匯入的用戶默認為啟用狀態，不會自動指派角色
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/import")
+    public ApiResponse<UserImportResultDTO> importUsers(
+            @Parameter(description = "匯入格式 (ndjson/csv)", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        UserImportResultDTO result = userImportService.importUsers(DataFormat.from(format), body);
+        return ApiResponse.success("匯入完成", result);
+    }
+
     @Operation(
             summary = "➕ 創建新用戶",
             description = """
@@ -254,6 +384,61 @@ public class UserController {
         return ApiResponse.success("用戶刪除成功");
     }
 
+    @Operation(
+            summary = "✅ 批次啟用用戶",
+            description = """
+                    ## 一次啟用多個用戶
+                    
+                    ### 功能說明
+                    - 每 1000 筆以一次查詢與一次 UPDATE 處理，不逐筆載入用戶
+                    - 已是啟用狀態的用戶列於 unchanged，不存在的列於 notFound
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/enable")
+    public ApiResponse<BulkOperationResultDTO> enableUsers(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = userService.enableUsers(request.getIds());
+        return ApiResponse.success("批次啟用完成", result);
+    }
+
+    @Operation(
+            summary = "❌ 批次停用用戶",
+            description = """
+                    ## 一次停用多個用戶
+                    
+                    ### 功能說明
+                    - 每 1000 筆以一次查詢與一次 UPDATE 處理，不逐筆載入用戶
+                    - 被停用用戶已簽發的 Token 立即失效
+                    - 已是停用狀態的用戶列於 unchanged，不存在的列於 notFound
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @PostMapping("/bulk/disable")
+    public ApiResponse<BulkOperationResultDTO> disableUsers(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = userService.disableUsers(request.getIds());
+        return ApiResponse.success("批次停用完成", result);
+    }
+
+    @Operation(
+            summary = "🗑️ 批次刪除用戶",
+            description = """
+                    ## 一次永久刪除多個用戶
+                    
+                    ### 功能說明
+                    - 同時刪除用戶的角色關聯
+                    - 每 1000 筆以批次 DELETE 處理
+                    - 被刪除用戶已簽發的 Token 立即失效
+                    - 不存在的用戶列於 notFound
+                    
+                    ### 注意事項
+                    - 此操作不可逆
+                    - 僅限 ADMIN 角色
+                    """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
+    @DeleteMapping("/bulk")
+    public ApiResponse<BulkOperationResultDTO> deleteUsers(@Valid @RequestBody BulkIdsRequestDTO request) {
+        BulkOperationResultDTO result = userService.deleteUsers(request.getIds());
+        return ApiResponse.success("批次刪除完成", result);
+    }
+
     @Operation(
             summary = "🎭 分配角色給用戶",
             description = """
@@ -267,6 +452,7 @@ public class UserController {
                     ### 參數說明
                     - roleCode: 角色代碼，如 "ADMIN", "USER" 等
                     """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
     @PostMapping("/{id}/roles/{roleCode}")
     public ApiResponse<Void> assignRole(
             @Parameter(description = "用戶 ID", required = true)
@@ -287,6 +473,7 @@ public class UserController {
                     - 不會刪除其他角色
                     - 會檢查用戶是否擁有該角色
                     """)
+    @PreAuthorize(SecurityConfig.ADMIN_ONLY)
     @DeleteMapping("/{id}/roles/{roleCode}")
     public ApiResponse<Void> revokeRole(
             @Parameter(description = "用戶 ID", required = true)
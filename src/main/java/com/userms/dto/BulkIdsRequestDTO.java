@@ -0,0 +1,18 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批次操作請求")
+public class BulkIdsRequestDTO {
+
+    @Schema(description = "ID 列表", example = "[\"550e8400-e29b-41d4-a716-446655440000\"]", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "ID 列表不能為空")
+    @Size(max = 100000, message = "單次最多處理 100000 筆")
+    private List<String> ids;
+}
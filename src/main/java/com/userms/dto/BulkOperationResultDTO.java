@@ -0,0 +1,32 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批次操作結果，每個 ID 依結果歸入其中一個列表")
+public class BulkOperationResultDTO {
+
+    @Schema(description = "本次變更的 ID")
+    private List<String> changed;
+
+    @Schema(description = "無需變更的 ID（狀態已相同）")
+    private List<String> unchanged;
+
+    @Schema(description = "不存在的 ID")
+    private List<String> notFound;
+
+    @Schema(description = "無法處理的 ID（例如刪除時仍被使用）")
+    private List<String> rejected;
+
+    public static BulkOperationResultDTO empty() {
+        return new BulkOperationResultDTO(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+}
@@ -0,0 +1,27 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "角色成員批次變更結果，每位用戶依結果歸入其中一個列表")
+public class RoleMembersResultDTO {
+
+    @Schema(description = "角色代碼", example = "ADMIN")
+    private String roleCode;
+
+    @Schema(description = "本次新增或移除成員的用戶 ID")
+    private List<String> changed;
+
+    @Schema(description = "無需變更的用戶 ID（新增時已擁有角色，移除時未擁有角色）")
+    private List<String> unchanged;
+
+    @Schema(description = "不存在的用戶 ID")
+    private List<String> notFound;
+}
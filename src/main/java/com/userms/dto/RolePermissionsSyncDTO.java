@@ -0,0 +1,19 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "角色權限集合同步請求")
+public class RolePermissionsSyncDTO {
+
+    @Schema(description = "角色應擁有的完整權限代碼列表，空列表表示移除全部權限",
+            example = "[\"USER_READ\", \"USER_WRITE\"]", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "權限代碼列表不能為空")
+    @Size(max = 5000, message = "權限代碼列表最多 5000 筆")
+    private List<String> permissionCodes;
+}
@@ -0,0 +1,27 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "角色權限集合同步結果")
+public class RolePermissionsSyncResultDTO {
+
+    @Schema(description = "角色 ID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private String roleId;
+
+    @Schema(description = "本次新增的權限代碼", example = "[\"USER_WRITE\"]")
+    private List<String> added;
+
+    @Schema(description = "本次移除的權限代碼", example = "[\"USER_DELETE\"]")
+    private List<String> removed;
+
+    @Schema(description = "未變更的權限數量", example = "12")
+    private int unchanged;
+}
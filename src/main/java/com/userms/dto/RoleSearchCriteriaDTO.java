@@ -0,0 +1,29 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "角色進階搜索條件（只套用有提供的條件）")
+public class RoleSearchCriteriaDTO {
+
+    @Schema(description = "角色代碼前綴", example = "ADM")
+    private String roleCode;
+
+    @Schema(description = "角色名稱前綴", example = "系統")
+    private String roleName;
+
+    @Schema(description = "啟用狀態", example = "true")
+    private Boolean isActive;
+
+    @Schema(description = "建立時間起（含）", example = "2024-01-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @Schema(description = "建立時間迄（含）", example = "2024-12-31T23:59:59")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
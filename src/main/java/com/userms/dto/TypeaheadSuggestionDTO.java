@@ -0,0 +1,22 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "輸入提示項目")
+public class TypeaheadSuggestionDTO {
+
+    @Schema(description = "提示類型", example = "USERNAME", allowableValues = {"USERNAME", "EMAIL", "ROLE_CODE", "PERMISSION_CODE"})
+    private String type;
+
+    @Schema(description = "對應資料的 ID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private String id;
+
+    @Schema(description = "提示文字", example = "john_doe")
+    private String value;
+}
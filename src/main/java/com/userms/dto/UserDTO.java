@@ -2,6 +2,7 @@ package com.userms.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,7 @@ public class UserDTO {
     private String id;
     
     @Schema(description = "使用者名稱", example = "john_doe")
+    @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "使用者名稱只能包含字母、數字和底線")
     private String username;
     
     @Schema(description = "電子郵件", example = "john.doe@example.com")
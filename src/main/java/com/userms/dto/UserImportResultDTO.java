@@ -0,0 +1,52 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "用戶批次匯入結果")
+public class UserImportResultDTO {
+
+    @Schema(description = "讀取的資料列數", example = "10000")
+    private long totalRows;
+
+    @Schema(description = "成功匯入的資料列數", example = "9990")
+    private long importedRows;
+
+    @Schema(description = "失敗的資料列數", example = "10")
+    private long failedRows;
+
+    @Schema(description = "處理耗時（毫秒）", example = "12500")
+    private long durationMs;
+
+    @Schema(description = "失敗資料列明細")
+    private List<RowError> errors;
+
+    @Schema(description = "失敗明細是否因數量過多而截斷", example = "false")
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "單筆資料列的失敗原因")
+    public static class RowError {
+
+        @Schema(description = "資料列序號（不含 CSV 標題列，從 1 開始）", example = "42")
+        private long row;
+
+        @Schema(description = "使用者名稱", example = "john_doe")
+        private String username;
+
+        @Schema(description = "錯誤代碼", example = "USERNAME_EXISTS")
+        private String errorCode;
+
+        @Schema(description = "錯誤訊息", example = "使用者名稱已存在")
+        private String message;
+    }
+}
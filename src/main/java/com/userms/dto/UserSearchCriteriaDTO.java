@@ -0,0 +1,35 @@
+package com.userms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "用戶進階搜索條件（只套用有提供的條件）")
+public class UserSearchCriteriaDTO {
+
+    @Schema(description = "用戶名前綴（區分大小寫）", example = "john")
+    private String username;
+
+    @Schema(description = "電子郵件前綴（區分大小寫）", example = "john@")
+    private String email;
+
+    @Schema(description = "名字前綴（區分大小寫）", example = "John")
+    private String firstName;
+
+    @Schema(description = "姓氏前綴（區分大小寫）", example = "Doe")
+    private String lastName;
+
+    @Schema(description = "啟用狀態", example = "true")
+    private Boolean isActive;
+
+    @Schema(description = "建立時間起（含）", example = "2024-01-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @Schema(description = "建立時間迄（含）", example = "2024-12-31T23:59:59")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,55 @@
+package com.userms.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * JWT 簽名金鑰
+ * 金鑰存放於資料庫，讓所有節點使用相同的金鑰集合進行簽名與驗證；私鑰以 AES-GCM 加密保存
+ */
+@Entity
+@Table(name = "jwt_signing_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"privateKey"})
+public class JwtSigningKey {
+
+    @Id
+    @Column(name = "kid", length = 36, nullable = false)
+    private String kid;
+
+    @Column(name = "algorithm", length = 10, nullable = false)
+    private String algorithm;
+
+    /**
+     * 輪替序號，每個演算法唯一，確保同一次輪替只有一個節點寫入金鑰
+     */
+    @Column(name = "generation", nullable = false, updatable = false)
+    private Long generation;
+
+    @Column(name = "public_key", length = 1000, nullable = false)
+    private String publicKey;
+
+    @Column(name = "private_key", length = 2000, nullable = false)
+    @JsonIgnore
+    private String privateKey;
+
+    @Column(name = "activated_time", nullable = false)
+    private LocalDateTime activatedTime;
+
+    @Column(name = "expires_time", nullable = false)
+    private LocalDateTime expiresTime;
+
+    @Column(name = "created_time", nullable = false, updatable = false)
+    private LocalDateTime createdTime;
+}
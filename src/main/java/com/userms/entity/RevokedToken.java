@@ -0,0 +1,45 @@
+package com.userms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已撤銷的 Token
+ * 紀錄保留到受影響的 Token 全部過期為止，之後由排程批次清除
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    public static final String TYPE_TOKEN = "TOKEN";
+    public static final String TYPE_USER = "USER";
+
+    @Id
+    @Column(name = "id", length = 36, nullable = false)
+    private String id;
+
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    @Column(name = "user_id", length = 36)
+    private String userId;
+
+    @Column(name = "revoke_type", length = 10, nullable = false)
+    private String revokeType;
+
+    @Column(name = "expires_time", nullable = false)
+    private LocalDateTime expiresTime;
+
+    @Column(name = "revoked_time", nullable = false, updatable = false)
+    private LocalDateTime revokedTime;
+}
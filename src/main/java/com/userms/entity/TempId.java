@@ -0,0 +1,23 @@
+package com.userms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全域暫存表 tmp_id_list 的對應，只供 JPQL 子查詢使用（{@code IN (SELECT t.id FROM TempId t)}）
+ * 寫入由 ChunkedInListExecutor 以 JDBC batch 進行，資料在交易結束時自動清除
+ */
+@Entity
+@Table(name = "tmp_id_list")
+@Data
+@NoArgsConstructor
+public class TempId {
+
+    @Id
+    @Column(name = "id", length = 36, nullable = false)
+    private String id;
+}
@@ -4,9 +4,11 @@ import com.userms.common.ApiResponse;
 import com.userms.common.ErrorCodes;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +20,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestControllerAdvice
@@ -30,6 +33,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.warn("服務忙碌: {}, 錯誤代碼: {}", e.getMessage(), e.getErrorCode());
+        ApiResponse<Object> response = ApiResponse.error(e.getMessage(), e.getErrorCode(), e.getData());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<Object>> handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn("請求過於頻繁: {}, 錯誤代碼: {}", e.getMessage(), e.getErrorCode());
+        ApiResponse<Object> response = ApiResponse.error(e.getMessage(), e.getErrorCode(), e.getData());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationException(MethodArgumentNotValidException e) {
         Map<String, String> errors = new HashMap<>();
@@ -73,17 +94,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * 寫入路徑不預先檢查重複，違反唯一約束時依約束名稱回傳對應的錯誤代碼
+     */
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiResponse<Object>> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        Optional<UniqueConstraint> constraint = UniqueConstraint.from(e);
+        if (constraint.isPresent()) {
+            log.warn("違反唯一約束: {}, 錯誤代碼: {}", constraint.get().message(), constraint.get().errorCode());
+            ApiResponse<Object> response = ApiResponse.error(constraint.get().message(), constraint.get().errorCode());
+            return ResponseEntity.badRequest().body(response);
+        }
+
         log.warn("數據完整性違反: {}", e.getMessage());
         String message = "數據操作失敗，可能存在重複或約束違反";
         if (e.getMessage() != null && e.getMessage().contains("unique")) {
             message = "數據已存在，不能重複";
         }
-        ApiResponse<Object> response = ApiResponse.error(message, "DATA_INTEGRITY_VIOLATION");
+        ApiResponse<Object> response = ApiResponse.error(message, ErrorCodes.DATA_INTEGRITY_VIOLATION);
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleAccessDeniedException(AccessDeniedException e) {
+        log.warn("權限不足: {}", e.getMessage());
+        ApiResponse<Object> response = ApiResponse.error("權限不足，無法執行此操作", ErrorCodes.ACCESS_DENIED);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<ApiResponse<Object>> handleNoResourceFoundException(NoResourceFoundException e) {
         log.warn("資源未找到: {}", e.getResourcePath());
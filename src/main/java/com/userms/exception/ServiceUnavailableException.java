@@ -0,0 +1,18 @@
+package com.userms.exception;
+
+import lombok.Getter;
+
+/**
+ * 服務暫時無法處理請求（例如密碼雜湊執行緒池已滿）
+ * 由 GlobalExceptionHandler 轉換為 HTTP 503，並帶 Retry-After 標頭
+ */
+@Getter
+public class ServiceUnavailableException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, String errorCode, long retryAfterSeconds) {
+        super(message, errorCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.userms.exception;
+
+import lombok.Getter;
+
+/**
+ * 請求過於頻繁（例如登入嘗試超過限制）
+ * 由 GlobalExceptionHandler 轉換為 HTTP 429，並帶 Retry-After 標頭
+ */
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, String errorCode, long retryAfterSeconds) {
+        super(message, errorCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,72 @@
+package com.userms.exception;
+
+import com.userms.common.ErrorCodes;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * 資料庫唯一約束與錯誤代碼的對應
+ * <p>
+ * 寫入時不再先以 exists 查詢檢查重複（與同時寫入的請求之間本來就有競爭），
+ * 直接寫入並由唯一約束保證；違反時依約束名稱轉換為對應的錯誤代碼與訊息。
+ */
+public enum UniqueConstraint {
+
+    USERS_USERNAME("uk_users_username", ErrorCodes.USERNAME_EXISTS, "使用者名稱已存在"),
+    USERS_EMAIL("uk_users_email", ErrorCodes.EMAIL_EXISTS, "電子郵件已被使用"),
+    ROLES_NAME("uk_roles_name", ErrorCodes.ROLE_NAME_EXISTS, "角色名稱已存在"),
+    ROLES_CODE("uk_roles_code", ErrorCodes.ROLE_CODE_EXISTS, "角色代碼已存在"),
+    PERMISSIONS_CODE("uk_permissions_code", ErrorCodes.PERMISSION_CODE_EXISTS, "權限代碼已存在");
+
+    private final String constraintName;
+    private final String errorCode;
+    private final String message;
+
+    UniqueConstraint(String constraintName, String errorCode, String message) {
+        this.constraintName = constraintName;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public String errorCode() {
+        return errorCode;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * 從例外鏈找出違反的唯一約束
+     * 優先使用 Hibernate 解析出的約束名稱（Oracle 為「SCHEMA.UK_...」），否則比對錯誤訊息（ORA-00001 訊息包含約束名稱）
+     */
+    public static Optional<UniqueConstraint> from(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                Optional<UniqueConstraint> constraint = match(violation.getConstraintName());
+                if (constraint.isPresent()) {
+                    return constraint;
+                }
+            }
+            if (cause.getMessage() != null) {
+                Optional<UniqueConstraint> constraint = match(cause.getMessage());
+                if (constraint.isPresent()) {
+                    return constraint;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<UniqueConstraint> match(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (UniqueConstraint constraint : values()) {
+            if (normalized.contains(constraint.constraintName)) {
+                return Optional.of(constraint);
+            }
+        }
+        return Optional.empty();
+    }
+}
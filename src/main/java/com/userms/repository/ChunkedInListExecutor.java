@@ -0,0 +1,264 @@
+package com.userms.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 大量 ID 的 IN 清單查詢與批次更新
+ * <p>
+ * Oracle 的 IN 清單最多 1000 個元素（ORA-01795），且每種綁定變數數量都會在共用池中產生一個獨立的 SQL 版本。
+ * 這裡統一處理：
+ * <ul>
+ *     <li>去除重複與 null 後，依 1000 筆分段，每段的綁定變數數量補齊到固定幾種大小（以最後一個值重複），
+ *     同一個查詢最多只有 {@link #BIND_SHAPES} 種 SQL 版本</li>
+ *     <li>唯讀查詢可在多段時平行執行（{@link #queryParallel}）</li>
+ *     <li>ID 數量超過門檻且呼叫端提供暫存表版本時，改為寫入全域暫存表 tmp_id_list 後以單一 SQL 子查詢處理</li>
+ * </ul>
+ * 結果依各段順序合併，不保證與輸入 ID 的順序相同。
+ */
+@Slf4j
+@Component
+public class ChunkedInListExecutor {
+
+    /**
+     * Oracle IN 清單上限
+     */
+    public static final int MAX_CHUNK_SIZE = 1000;
+
+    /**
+     * 每段綁定變數數量的固定大小
+     */
+    private static final int[] BIND_SHAPES = {10, 50, 100, 500, MAX_CHUNK_SIZE};
+
+    private static final String CLEAR_TEMP_IDS_SQL = "DELETE FROM tmp_id_list";
+    private static final String INSERT_TEMP_ID_SQL = "INSERT INTO tmp_id_list (id) VALUES (?)";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int tempTableThreshold;
+
+    public ChunkedInListExecutor(EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.query.in-list.parallelism:4}") int parallelism,
+                                 @Value("${app.query.in-list.temp-table-threshold:5000}") int tempTableThreshold) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = Math.max(1, parallelism);
+        this.tempTableThreshold = Math.max(MAX_CHUNK_SIZE, tempTableThreshold);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "in-list-query-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ===== 查詢 =====
+
+    /**
+     * 分段查詢並合併結果
+     *
+     * @param chunkQuery 以一段 ID（最多 1000 筆）查詢
+     */
+    public <T> List<T> query(Collection<String> ids, Function<List<String>, List<T>> chunkQuery) {
+        return query(ids, chunkQuery, null);
+    }
+
+    /**
+     * 分段查詢並合併結果；ID 數量超過門檻時改用暫存表
+     *
+     * @param chunkQuery     以一段 ID（最多 1000 筆）查詢
+     * @param tempTableQuery 以 {@code IN (SELECT t.id FROM TempId t)} 取代 IN 清單的同一查詢，null 表示一律分段
+     */
+    public <T> List<T> query(Collection<String> ids,
+                             Function<List<String>, List<T>> chunkQuery,
+                             Supplier<List<T>> tempTableQuery) {
+        List<String> distinctIds = distinct(ids);
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (tempTableQuery != null && distinctIds.size() > tempTableThreshold) {
+            return transactionTemplate.execute(status -> {
+                loadTempIds(distinctIds);
+                return new ArrayList<>(tempTableQuery.get());
+            });
+        }
+
+        List<T> results = new ArrayList<>();
+        for (List<String> chunk : chunks(distinctIds)) {
+            results.addAll(chunkQuery.apply(chunk));
+        }
+        return results;
+    }
+
+    /**
+     * 分段查詢，多段時平行執行，每段在各自的唯讀交易（連線）中進行
+     * 呼叫端已在交易中時改為依序執行，維持與該交易一致的讀取視圖
+     */
+    public <T> List<T> queryParallel(Collection<String> ids, Function<List<String>, List<T>> chunkQuery) {
+        List<List<String>> chunks = chunks(distinct(ids));
+        if (chunks.size() <= 1 || parallelism == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<T> results = new ArrayList<>();
+            for (List<String> chunk : chunks) {
+                results.addAll(chunkQuery.apply(chunk));
+            }
+            return results;
+        }
+
+        List<Future<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            futures.add(executor.submit(() -> readOnlyTransaction.execute(status -> chunkQuery.apply(chunk))));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<List<T>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("分段查詢被中斷", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("分段查詢失敗", e.getCause());
+        }
+        return results;
+    }
+
+    // ===== 批次更新／刪除 =====
+
+    /**
+     * 分段執行 UPDATE / DELETE，回傳影響筆數總和；需在呼叫端的交易中執行
+     */
+    public int update(Collection<String> ids, ToIntFunction<List<String>> chunkUpdate) {
+        return update(ids, chunkUpdate, null);
+    }
+
+    /**
+     * 分段執行 UPDATE / DELETE；ID 數量超過門檻時改用暫存表，以單一 SQL 完成
+     *
+     * @param tempTableUpdate 以 {@code IN (SELECT t.id FROM TempId t)} 取代 IN 清單的同一語句，null 表示一律分段
+     */
+    public int update(Collection<String> ids, ToIntFunction<List<String>> chunkUpdate, IntSupplier tempTableUpdate) {
+        List<String> distinctIds = distinct(ids);
+        if (distinctIds.isEmpty()) {
+            return 0;
+        }
+        if (tempTableUpdate != null && distinctIds.size() > tempTableThreshold) {
+            Integer updated = transactionTemplate.execute(status -> {
+                loadTempIds(distinctIds);
+                return tempTableUpdate.getAsInt();
+            });
+            return updated == null ? 0 : updated;
+        }
+
+        int updated = 0;
+        for (List<String> chunk : chunks(distinctIds)) {
+            updated += chunkUpdate.applyAsInt(chunk);
+        }
+        return updated;
+    }
+
+    // ===== 內部方法 =====
+
+    /**
+     * 以 JDBC batch 將 ID 寫入暫存表（先清除同一交易中先前寫入的 ID）
+     */
+    private void loadTempIds(List<String> ids) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement clear = connection.createStatement()) {
+                clear.executeUpdate(CLEAR_TEMP_IDS_SQL);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_TEMP_ID_SQL)) {
+                int pending = 0;
+                for (String id : ids) {
+                    insert.setString(1, id);
+                    insert.addBatch();
+                    if (++pending == MAX_CHUNK_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        });
+        log.debug("已寫入 {} 筆 ID 到暫存表", ids.size());
+    }
+
+    /**
+     * 去除重複與 null，保留原始順序
+     */
+    public static List<String> distinct(Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * 依上限分段，並將每段補齊到固定的綁定變數數量
+     */
+    static List<List<String>> chunks(List<String> ids) {
+        List<List<String>> chunks = new ArrayList<>((ids.size() + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        for (int from = 0; from < ids.size(); from += MAX_CHUNK_SIZE) {
+            chunks.add(pad(ids.subList(from, Math.min(from + MAX_CHUNK_SIZE, ids.size()))));
+        }
+        return chunks;
+    }
+
+    static List<String> pad(List<String> chunk) {
+        int shape = MAX_CHUNK_SIZE;
+        for (int candidate : BIND_SHAPES) {
+            if (candidate >= chunk.size()) {
+                shape = candidate;
+                break;
+            }
+        }
+        List<String> padded = new ArrayList<>(shape);
+        padded.addAll(chunk);
+        String last = chunk.get(chunk.size() - 1);
+        while (padded.size() < shape) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
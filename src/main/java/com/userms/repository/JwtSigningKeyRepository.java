@@ -0,0 +1,26 @@
+package com.userms.repository;
+
+import com.userms.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findByAlgorithmAndExpiresTimeAfterOrderByActivatedTimeDesc(String algorithm, LocalDateTime now);
+
+    @Query("SELECT MAX(k.generation) FROM JwtSigningKey k WHERE k.algorithm = :algorithm")
+    Long findMaxGeneration(@Param("algorithm") String algorithm);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresTime < :now")
+    int deleteExpiredKeys(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,69 @@
+package com.userms.repository;
+
+import com.userms.common.CursorResult;
+import com.userms.entity.BaseEntity;
+import com.userms.utils.CursorCodec;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游標分頁（Keyset）查詢
+ * <p>
+ * 依 {@link SearchSpecifications#CREATED_DESC} 排序，以 (createdTime, id) seek 取代 OFFSET，
+ * 多查一筆判斷是否有下一頁，不執行 count。游標分頁與進階搜索共用此處的 seek 條件與分頁邏輯。
+ */
+public final class KeysetPager {
+
+    /**
+     * 游標分頁與進階搜索的每頁上限
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private KeysetPager() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 查詢游標之後的一頁資料
+     *
+     * @param repository 實體的 Specification 查詢介面
+     * @param filter     篩選條件，null 表示不篩選
+     * @param cursor     上一頁回傳的游標，null 或空白表示第一頁
+     * @param size       每頁筆數，限制在 1 ~ {@link #MAX_PAGE_SIZE}
+     * @param converter  將實體轉為回傳型別
+     */
+    public static <T extends BaseEntity, R> CursorResult<R> fetch(JpaSpecificationExecutor<T> repository,
+                                                                  Specification<T> filter,
+                                                                  String cursor,
+                                                                  int size,
+                                                                  Function<List<T>, List<R>> converter) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<T> specification = SearchSpecifications.allOf(
+                filter,
+                SearchSpecifications.seekAfter(CursorCodec.decode(cursor)));
+
+        List<T> rows = repository.findBy(specification, query -> query
+                .sortBy(SearchSpecifications.CREATED_DESC)
+                .limit(limit + 1)
+                .all());
+        return toCursorResult(rows, limit, converter);
+    }
+
+    /**
+     * 將多查一筆的結果轉為游標分頁結果，以最後一筆的 (createdTime, id) 作為下一頁游標
+     */
+    static <T extends BaseEntity, R> CursorResult<R> toCursorResult(List<T> rows, int limit,
+                                                                    Function<List<T>, List<R>> converter) {
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedTime(), last.getId());
+        }
+        return CursorResult.of(converter.apply(content), limit, nextCursor);
+    }
+}
@@ -3,18 +3,21 @@ package com.userms.repository;
 import com.userms.entity.Permission;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PermissionRepository extends JpaRepository<Permission, String> {
+public interface PermissionRepository extends JpaRepository<Permission, String>, JpaSpecificationExecutor<Permission> {
 
     // ===== 基本查詢方法 =====
 
@@ -24,6 +27,14 @@ public interface PermissionRepository extends JpaRepository<Permission, String>
 
     Optional<Permission> findByPermissionNameOrPermissionCode(String permissionName, String permissionCode);
 
+    /**
+     * 以權限代碼批次查詢 ID，IN 清單不可超過 1000 筆
+     *
+     * @return 返回 [permissionId, permissionCode] 的對象數組列表
+     */
+    @Query("SELECT p.id, p.permissionCode FROM Permission p WHERE p.permissionCode IN :permissionCodes")
+    List<Object[]> findIdsByPermissionCodes(@Param("permissionCodes") Collection<String> permissionCodes);
+
     List<Permission> findByPermissionNameContainingIgnoreCase(String permissionName);
 
     boolean existsByPermissionName(String permissionName);
@@ -101,19 +112,59 @@ public interface PermissionRepository extends JpaRepository<Permission, String>
 
     // ===== 批次操作 =====
 
+    /**
+     * 批次變更啟用狀態，只更新狀態確實不同的資料，寫入 updateUser 並同步遞增 version 與 updatedTs，
+     * 讓持有舊版本的並行更新以樂觀鎖失敗。IN 清單不可超過 1000 筆
+     */
     @Modifying
-    @Query("UPDATE Permission p SET p.isActive = :isActive, p.updatedTime = :updatedTime, p.updateUser = :updateUser WHERE p.id IN :ids")
-    int updateActiveStatusByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE Permission p SET p.isActive = :isActive, p.updatedTime = :updatedTime, p.updatedTs = :updatedTs, " +
+            "p.updateUser = :updateUser, p.version = p.version + 1 WHERE p.id IN :ids AND p.isActive <> :isActive")
+    int updateActiveStatusByIds(@Param("ids") Collection<String> ids,
                                 @Param("isActive") Boolean isActive,
                                 @Param("updatedTime") LocalDateTime updatedTime,
+                                @Param("updatedTs") Long updatedTs,
                                 @Param("updateUser") String updateUser);
 
     @Modifying
-    @Query("UPDATE Permission p SET p.isActive = false, p.updatedTime = :updatedTime, p.updateUser = :updateUser WHERE p.id IN :ids")
-    int deactivatePermissionsByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE Permission p SET p.isActive = false, p.updatedTime = :updatedTime, p.updatedTs = :updatedTs, " +
+            "p.updateUser = :updateUser, p.version = p.version + 1 WHERE p.id IN :ids AND p.isActive = true")
+    int deactivatePermissionsByIds(@Param("ids") Collection<String> ids,
                                    @Param("updatedTime") LocalDateTime updatedTime,
+                                   @Param("updatedTs") Long updatedTs,
                                    @Param("updateUser") String updateUser);
 
+    /**
+     * 批次查詢啟用狀態（決定批次操作中每筆資料的結果），IN 清單不可超過 1000 筆
+     *
+     * @return 返回 [id, isActive] 的對象數組列表
+     */
+    @Query("SELECT p.id, p.isActive FROM Permission p WHERE p.id IN :ids")
+    List<Object[]> findActiveStatusByIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 批次刪除（關聯資料需先刪除），IN 清單不可超過 1000 筆
+     */
+    @Modifying
+    @Query("DELETE FROM Permission p WHERE p.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<String> ids);
+
+    // ===== 不計總數的分頁查詢（Slice） =====
+
+    /**
+     * 多查一筆判斷是否有下一頁，不執行 COUNT
+     */
+    Slice<Permission> findSliceBy(Pageable pageable);
+
+    Slice<Permission> findSliceByIsActive(Boolean isActive, Pageable pageable);
+
+    // ===== 輸入提示索引載入 =====
+
+    /**
+     * @return [id, permissionCode]
+     */
+    @Query("SELECT p.id, p.permissionCode FROM Permission p")
+    List<Object[]> findTypeaheadRows();
+
     // ===== 統計查詢 =====
 
     @Query("SELECT COUNT(p) FROM Permission p WHERE p.createdTime >= :startTime")
@@ -129,23 +180,7 @@ public interface PermissionRepository extends JpaRepository<Permission, String>
     long countActivePermissionsByResource(@Param("resourceName") String resourceName);
 
     // ===== 複合條件查詢 =====
-
-    @Query("SELECT p FROM Permission p WHERE " +
-            "(:permissionName IS NULL OR LOWER(p.permissionName) LIKE LOWER(CONCAT('%', :permissionName, '%'))) AND " +
-            "(:permissionCode IS NULL OR LOWER(p.permissionCode) LIKE LOWER(CONCAT('%', :permissionCode, '%'))) AND " +
-            "(:resourceName IS NULL OR LOWER(p.resourceName) LIKE LOWER(CONCAT('%', :resourceName, '%'))) AND " +
-            "(:actionType IS NULL OR LOWER(p.actionType) LIKE LOWER(CONCAT('%', :actionType, '%'))) AND " +
-            "(:isActive IS NULL OR p.isActive = :isActive) AND " +
-            "(:startTime IS NULL OR p.createdTime >= :startTime) AND " +
-            "(:endTime IS NULL OR p.createdTime <= :endTime)")
-    Page<Permission> findPermissionsByCriteria(@Param("permissionName") String permissionName,
-                                               @Param("permissionCode") String permissionCode,
-                                               @Param("resourceName") String resourceName,
-                                               @Param("actionType") String actionType,
-                                               @Param("isActive") Boolean isActive,
-                                               @Param("startTime") LocalDateTime startTime,
-                                               @Param("endTime") LocalDateTime endTime,
-                                               Pageable pageable);
+    // 動態條件請使用 JpaSpecificationExecutor 搭配 SearchSpecifications，只為有提供的條件產生 SQL
 
     // ===== 資料驗證查詢 =====
 
@@ -0,0 +1,35 @@
+package com.userms.repository;
+
+import com.userms.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * 載入仍有效的撤銷紀錄（節點啟動時重建記憶體結構）
+     */
+    List<RevokedToken> findByExpiresTimeAfter(LocalDateTime now);
+
+    /**
+     * 載入指定時間之後新增的撤銷紀錄（增量同步其他節點的撤銷）
+     */
+    List<RevokedToken> findByRevokedTimeAfterAndExpiresTimeAfter(LocalDateTime since, LocalDateTime now);
+
+    /**
+     * 批次刪除已過期的撤銷紀錄，每次最多刪除 batchSize 筆，避免長交易與大量 undo
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM revoked_tokens WHERE expires_time < :now AND ROWNUM <= :batchSize",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +56,12 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     @Query("SELECT rp.role FROM RolePermission rp WHERE rp.id.permissionId = :permissionId AND rp.role.isActive = :isActive")
     List<Role> findRolesByPermissionIdAndIsActive(@Param("permissionId") String permissionId, @Param("isActive") Boolean isActive);
 
+    /**
+     * 在指定權限中找出仍有角色使用者，IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT DISTINCT rp.id.permissionId FROM RolePermission rp WHERE rp.id.permissionId IN :permissionIds")
+    List<String> findPermissionIdsInUse(@Param("permissionIds") Collection<String> permissionIds);
+
     @Query("SELECT COUNT(rp) FROM RolePermission rp WHERE rp.id.permissionId = :permissionId")
     long countRolesByPermissionId(@Param("permissionId") String permissionId);
 
@@ -72,6 +79,14 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     @Query("SELECT rp.permission.permissionCode FROM RolePermission rp WHERE rp.id.roleId = :roleId AND rp.permission.isActive = true")
     List<String> findPermissionCodesByRoleId(@Param("roleId") String roleId);
 
+    /**
+     * 角色目前關聯的所有權限（含停用權限），供權限集合同步計算差異
+     *
+     * @return 返回 [permissionId, permissionCode] 的對象數組列表
+     */
+    @Query("SELECT p.id, p.permissionCode FROM RolePermission rp JOIN rp.permission p WHERE rp.id.roleId = :roleId")
+    List<Object[]> findAssignedPermissionRowsByRoleId(@Param("roleId") String roleId);
+
     // ===== 資源權限查詢 =====
 
     @Query("SELECT rp.permission FROM RolePermission rp WHERE rp.id.roleId = :roleId AND rp.permission.resourceName = :resourceName AND rp.permission.isActive = true")
@@ -89,6 +104,10 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     @Query("DELETE FROM RolePermission rp WHERE rp.id.roleId = :roleId")
     int deleteAllByRoleId(@Param("roleId") String roleId);
 
+    @Modifying
+    @Query("DELETE FROM RolePermission rp WHERE rp.id.roleId IN :roleIds")
+    int deleteAllByRoleIds(@Param("roleIds") Collection<String> roleIds);
+
     @Modifying
     @Query("DELETE FROM RolePermission rp WHERE rp.id.permissionId = :permissionId")
     int deleteAllByPermissionId(@Param("permissionId") String permissionId);
@@ -146,6 +165,31 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
             "GROUP BY rp.permission.permissionName ORDER BY COUNT(rp) DESC")
     List<Object[]> findPermissionUsageStatistics();
 
+    // ===== 批次查詢優化 - 解決 N+1 問題 =====
+
+    /**
+     * 批次獲取多個角色的啟用中權限代碼
+     *
+     * @param roleIds 角色 ID 列表
+     * @return 返回 [roleId, permissionCode] 的對象數組列表
+     */
+    @Query("SELECT rp.id.roleId, p.permissionCode FROM RolePermission rp " +
+            "JOIN rp.permission p " +
+            "WHERE rp.id.roleId IN :roleIds AND p.isActive = true")
+    List<Object[]> findPermissionCodesByRoleIds(@Param("roleIds") List<String> roleIds);
+
+    /**
+     * 批次統計多個權限被啟用中角色使用的數量
+     *
+     * @param permissionIds 權限 ID 列表
+     * @return 返回 [permissionId, count] 的對象數組列表（沒有角色的權限不會出現）
+     */
+    @Query("SELECT rp.id.permissionId, COUNT(rp) FROM RolePermission rp " +
+            "JOIN rp.role r " +
+            "WHERE rp.id.permissionId IN :permissionIds AND r.isActive = true " +
+            "GROUP BY rp.id.permissionId")
+    List<Object[]> countActiveRolesByPermissionIds(@Param("permissionIds") List<String> permissionIds);
+
     // ===== 複合查詢 =====
 
     @Query("SELECT rp FROM RolePermission rp " +
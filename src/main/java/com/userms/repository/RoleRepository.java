@@ -3,18 +3,21 @@ package com.userms.repository;
 import com.userms.entity.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoleRepository extends JpaRepository<Role, String> {
+public interface RoleRepository extends JpaRepository<Role, String>, JpaSpecificationExecutor<Role> {
 
     // ===== 基本查詢方法 =====
 
@@ -75,19 +78,59 @@ public interface RoleRepository extends JpaRepository<Role, String> {
 
     // ===== 批次操作 =====
 
+    /**
+     * 批次變更啟用狀態，只更新狀態確實不同的資料，寫入 updateUser 並同步遞增 version 與 updatedTs，
+     * 讓持有舊版本的並行更新以樂觀鎖失敗。IN 清單不可超過 1000 筆
+     */
     @Modifying
-    @Query("UPDATE Role r SET r.isActive = :isActive, r.updatedTime = :updatedTime, r.updateUser = :updateUser WHERE r.id IN :ids")
-    int updateActiveStatusByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE Role r SET r.isActive = :isActive, r.updatedTime = :updatedTime, r.updatedTs = :updatedTs, " +
+            "r.updateUser = :updateUser, r.version = r.version + 1 WHERE r.id IN :ids AND r.isActive <> :isActive")
+    int updateActiveStatusByIds(@Param("ids") Collection<String> ids,
                                 @Param("isActive") Boolean isActive,
                                 @Param("updatedTime") LocalDateTime updatedTime,
+                                @Param("updatedTs") Long updatedTs,
                                 @Param("updateUser") String updateUser);
 
     @Modifying
-    @Query("UPDATE Role r SET r.isActive = false, r.updatedTime = :updatedTime, r.updateUser = :updateUser WHERE r.id IN :ids")
-    int deactivateRolesByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE Role r SET r.isActive = false, r.updatedTime = :updatedTime, r.updatedTs = :updatedTs, " +
+            "r.updateUser = :updateUser, r.version = r.version + 1 WHERE r.id IN :ids AND r.isActive = true")
+    int deactivateRolesByIds(@Param("ids") Collection<String> ids,
                              @Param("updatedTime") LocalDateTime updatedTime,
+                             @Param("updatedTs") Long updatedTs,
                              @Param("updateUser") String updateUser);
 
+    /**
+     * 批次查詢啟用狀態（決定批次操作中每筆資料的結果），IN 清單不可超過 1000 筆
+     *
+     * @return 返回 [id, isActive] 的對象數組列表
+     */
+    @Query("SELECT r.id, r.isActive FROM Role r WHERE r.id IN :ids")
+    List<Object[]> findActiveStatusByIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 批次刪除（關聯資料需先刪除），IN 清單不可超過 1000 筆
+     */
+    @Modifying
+    @Query("DELETE FROM Role r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<String> ids);
+
+    // ===== 不計總數的分頁查詢（Slice） =====
+
+    /**
+     * 多查一筆判斷是否有下一頁，不執行 COUNT
+     */
+    Slice<Role> findSliceBy(Pageable pageable);
+
+    Slice<Role> findSliceByIsActive(Boolean isActive, Pageable pageable);
+
+    // ===== 輸入提示索引載入 =====
+
+    /**
+     * @return [id, roleCode]
+     */
+    @Query("SELECT r.id, r.roleCode FROM Role r")
+    List<Object[]> findTypeaheadRows();
+
     // ===== 統計查詢 =====
 
     @Query("SELECT COUNT(r) FROM Role r WHERE r.createdTime >= :startTime")
@@ -100,21 +143,7 @@ public interface RoleRepository extends JpaRepository<Role, String> {
     long countInactiveRoles();
 
     // ===== 複合條件查詢 =====
-
-    @Query("SELECT r FROM Role r WHERE " +
-            "(:roleName IS NULL OR LOWER(r.roleName) LIKE LOWER(CONCAT('%', :roleName, '%'))) AND " +
-            "(:roleCode IS NULL OR LOWER(r.roleCode) LIKE LOWER(CONCAT('%', :roleCode, '%'))) AND " +
-            "(:description IS NULL OR LOWER(r.description) LIKE LOWER(CONCAT('%', :description, '%'))) AND " +
-            "(:isActive IS NULL OR r.isActive = :isActive) AND " +
-            "(:startTime IS NULL OR r.createdTime >= :startTime) AND " +
-            "(:endTime IS NULL OR r.createdTime <= :endTime)")
-    Page<Role> findRolesByCriteria(@Param("roleName") String roleName,
-                                   @Param("roleCode") String roleCode,
-                                   @Param("description") String description,
-                                   @Param("isActive") Boolean isActive,
-                                   @Param("startTime") LocalDateTime startTime,
-                                   @Param("endTime") LocalDateTime endTime,
-                                   Pageable pageable);
+    // 動態條件請使用 JpaSpecificationExecutor 搭配 SearchSpecifications，只為有提供的條件產生 SQL
 
     // ===== 資料驗證查詢 =====
 
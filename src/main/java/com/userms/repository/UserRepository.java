@@ -1,21 +1,34 @@
 package com.userms.repository;
 
 import com.userms.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
+
+    /**
+     * 匯出串流的 JDBC fetch size，減少大量資料列的網路往返
+     */
+    String EXPORT_FETCH_SIZE = "2000";
 
     // ===== 基本查詢方法 =====
 
@@ -58,6 +71,31 @@ public interface UserRepository extends JpaRepository<User, String> {
             "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<User> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    // ===== 登入查詢 =====
+
+    /**
+     * 登入專用查詢：一次取得驗證與回應所需的欄位及啟用中的角色代碼
+     * 不載入 User / Role 實體；每個角色一列，沒有角色時 roleCode 為 null
+     *
+     * @return [id, username, email, firstName, lastName, isActive, createdTime, updatedTime, passwordHash, roleCode]
+     */
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, " +
+            "u.createdTime, u.updatedTime, u.passwordHash, r.roleCode FROM User u " +
+            "LEFT JOIN UserRole ur ON ur.id.userId = u.id " +
+            "LEFT JOIN ur.role r ON r.isActive = true " +
+            "WHERE u.username = :username")
+    List<Object[]> findLoginRowsByUsername(@Param("username") String username);
+
+    /**
+     * 同 {@link #findLoginRowsByUsername(String)}，以電子郵件查詢
+     */
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, " +
+            "u.createdTime, u.updatedTime, u.passwordHash, r.roleCode FROM User u " +
+            "LEFT JOIN UserRole ur ON ur.id.userId = u.id " +
+            "LEFT JOIN ur.role r ON r.isActive = true " +
+            "WHERE u.email = :email")
+    List<Object[]> findLoginRowsByEmail(@Param("email") String email);
+
     // ===== 時間範圍查詢 =====
 
     List<User> findByCreatedTimeBetween(LocalDateTime startTime, LocalDateTime endTime);
@@ -68,19 +106,115 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     // ===== 批次操作 =====
 
+    /**
+     * 批次變更啟用狀態，只更新狀態確實不同的資料，寫入 updateUser 並同步遞增 version 與 updatedTs，
+     * 讓持有舊版本的並行更新以樂觀鎖失敗。IN 清單不可超過 1000 筆
+     */
     @Modifying
-    @Query("UPDATE User u SET u.isActive = :isActive, u.updatedTime = :updatedTime, u.updateUser = :updateUser WHERE u.id IN :ids")
-    int updateActiveStatusByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE User u SET u.isActive = :isActive, u.updatedTime = :updatedTime, u.updatedTs = :updatedTs, " +
+            "u.updateUser = :updateUser, u.version = u.version + 1 WHERE u.id IN :ids AND u.isActive <> :isActive")
+    int updateActiveStatusByIds(@Param("ids") Collection<String> ids,
                                 @Param("isActive") Boolean isActive,
                                 @Param("updatedTime") LocalDateTime updatedTime,
+                                @Param("updatedTs") Long updatedTs,
                                 @Param("updateUser") String updateUser);
 
     @Modifying
-    @Query("UPDATE User u SET u.isActive = false, u.updatedTime = :updatedTime, u.updateUser = :updateUser WHERE u.id IN :ids")
-    int deactivateUsersByIds(@Param("ids") List<String> ids,
+    @Query("UPDATE User u SET u.isActive = false, u.updatedTime = :updatedTime, u.updatedTs = :updatedTs, " +
+            "u.updateUser = :updateUser, u.version = u.version + 1 WHERE u.id IN :ids AND u.isActive = true")
+    int deactivateUsersByIds(@Param("ids") Collection<String> ids,
                              @Param("updatedTime") LocalDateTime updatedTime,
+                             @Param("updatedTs") Long updatedTs,
                              @Param("updateUser") String updateUser);
 
+    /**
+     * 批次查詢啟用狀態（決定批次操作中每筆資料的結果），IN 清單不可超過 1000 筆
+     *
+     * @return 返回 [id, isActive] 的對象數組列表
+     */
+    @Query("SELECT u.id, u.isActive FROM User u WHERE u.id IN :ids")
+    List<Object[]> findActiveStatusByIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 批次刪除（關聯資料需先刪除），IN 清單不可超過 1000 筆
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<String> ids);
+
+    // 以下為暫存表（tmp_id_list）版本，ID 數量超過門檻時由 ChunkedInListExecutor 使用
+
+    @Query("SELECT u.id, u.isActive FROM User u WHERE u.id IN (SELECT t.id FROM TempId t)")
+    List<Object[]> findActiveStatusInTempIds();
+
+    @Modifying
+    @Query("UPDATE User u SET u.isActive = :isActive, u.updatedTime = :updatedTime, u.updatedTs = :updatedTs, " +
+            "u.updateUser = :updateUser, u.version = u.version + 1 WHERE u.id IN (SELECT t.id FROM TempId t) AND u.isActive <> :isActive")
+    int updateActiveStatusInTempIds(@Param("isActive") Boolean isActive,
+                                    @Param("updatedTime") LocalDateTime updatedTime,
+                                    @Param("updatedTs") Long updatedTs,
+                                    @Param("updateUser") String updateUser);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN (SELECT t.id FROM TempId t)")
+    int deleteAllInTempIds();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash, u.updatedTime = :updatedTime, u.updatedTs = :updatedTs " +
+            "WHERE u.id = :id AND u.passwordHash = :oldPasswordHash")
+    int updatePasswordHash(@Param("id") String id,
+                           @Param("oldPasswordHash") String oldPasswordHash,
+                           @Param("passwordHash") String passwordHash,
+                           @Param("updatedTime") LocalDateTime updatedTime,
+                           @Param("updatedTs") Long updatedTs);
+
+    // ===== 不計總數的分頁查詢（Slice） =====
+
+    /**
+     * 多查一筆判斷是否有下一頁，不執行 COUNT
+     */
+    Slice<User> findSliceBy(Pageable pageable);
+
+    // ===== 搜索索引載入 =====
+
+    /**
+     * 搜索索引批次載入的第一批，依 id 遞增
+     *
+     * @return [id, username, email, firstName, lastName]
+     */
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName FROM User u ORDER BY u.id")
+    List<Object[]> findSearchRowsFirst(Pageable limit);
+
+    /**
+     * 搜索索引批次載入的下一批：id 大於上一批最後一筆
+     *
+     * @return [id, username, email, firstName, lastName]
+     */
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName FROM User u " +
+            "WHERE u.id > :lastId ORDER BY u.id")
+    List<Object[]> findSearchRowsAfter(@Param("lastId") String lastId, Pageable limit);
+
+    // ===== 匯出串流查詢 =====
+    // 以純量欄位串流讀取，資料列不會進入持久化上下文；需在交易內使用並關閉 Stream
+    // 回傳欄位：[id, username, email, firstName, lastName, isActive, createdTime, updatedTime]
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, u.createdTime, u.updatedTime FROM User u")
+    Stream<Object[]> streamExportRows();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, u.createdTime, u.updatedTime FROM User u WHERE u.id < :toId")
+    Stream<Object[]> streamExportRowsBefore(@Param("toId") String toId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, u.createdTime, u.updatedTime FROM User u WHERE u.id >= :fromId AND u.id < :toId")
+    Stream<Object[]> streamExportRowsInRange(@Param("fromId") String fromId, @Param("toId") String toId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT u.id, u.username, u.email, u.firstName, u.lastName, u.isActive, u.createdTime, u.updatedTime FROM User u WHERE u.id >= :fromId")
+    Stream<Object[]> streamExportRowsFrom(@Param("fromId") String fromId);
+
     // ===== 統計查詢 =====
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdTime >= :startTime")
@@ -93,23 +227,7 @@ public interface UserRepository extends JpaRepository<User, String> {
     long countInactiveUsers();
 
     // ===== 複合條件查詢 =====
-
-    @Query("SELECT u FROM User u WHERE " +
-            "(:username IS NULL OR LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%'))) AND " +
-            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
-            "(:firstName IS NULL OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :firstName, '%'))) AND " +
-            "(:lastName IS NULL OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :lastName, '%'))) AND " +
-            "(:isActive IS NULL OR u.isActive = :isActive) AND " +
-            "(:startTime IS NULL OR u.createdTime >= :startTime) AND " +
-            "(:endTime IS NULL OR u.createdTime <= :endTime)")
-    Page<User> findUsersByCriteria(@Param("username") String username,
-                                   @Param("email") String email,
-                                   @Param("firstName") String firstName,
-                                   @Param("lastName") String lastName,
-                                   @Param("isActive") Boolean isActive,
-                                   @Param("startTime") LocalDateTime startTime,
-                                   @Param("endTime") LocalDateTime endTime,
-                                   Pageable pageable);
+    // 動態條件請使用 JpaSpecificationExecutor 搭配 SearchSpecifications，只為有提供的條件產生 SQL
 
     // ===== 資料驗證查詢 =====
 
@@ -119,27 +237,52 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.email = :email AND u.id != :excludeId")
     boolean existsByEmailExcludingId(@Param("email") String email, @Param("excludeId") String excludeId);
 
+    /**
+     * 批次檢查已存在的使用者名稱（匯入用），IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * 批次檢查已存在的電子郵件（匯入用），IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * 批次檢查已存在的使用者 ID，IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :userIds")
+    List<String> findExistingIds(@Param("userIds") Collection<String> userIds);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN (SELECT t.id FROM TempId t)")
+    List<String> findExistingIdsInTempIds();
+
     // ===== 搜索方法 =====
     
     List<User> findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-            String username, String email, String firstName, String lastName);
+            String username, String email, String firstName, String lastName, Pageable pageable);
 
     // ===== N+1 問題優化查詢 =====
     
     /**
-     * 使用 @EntityGraph 解決 N+1 問題
-     * 一次性加載用戶和其角色關聯，避免 N+1 查詢問題
+     * 分頁查詢用戶 ID，供兩階段載入使用
+     * <p>
+     * @EntityGraph 的集合抓取搭配 Pageable 時，Hibernate 無法在 SQL 中套用分頁，
+     * 會載入所有符合條件的用戶與角色後在記憶體中分頁。
+     * 因此先以 SQL 分頁取得該頁的用戶 ID（含 count），再經由 ChunkedInListExecutor
+     * 以 {@link #findWithRolesByIdIn} 只載入這些用戶及其角色。
      */
-    @EntityGraph(attributePaths = {"userRoles", "userRoles.role"})
-    @Query("SELECT u FROM User u")
-    Page<User> findAllWithRoles(Pageable pageable);
-    
+    @Query(value = "SELECT u.id FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<String> findAllIds(Pageable pageable);
+
     /**
-     * 根據啟用狀態使用 @EntityGraph 查詢用戶和角色
+     * 以 @EntityGraph 載入指定用戶及其角色（不分頁，只用於已分頁的 ID）
      */
     @EntityGraph(attributePaths = {"userRoles", "userRoles.role"})
-    @Query("SELECT u FROM User u WHERE u.isActive = :isActive")
-    Page<User> findByIsActiveWithRoles(@Param("isActive") Boolean isActive, Pageable pageable);
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findWithRolesByIdIn(@Param("ids") List<String> ids);
     
     /**
      * 根據關鍵字搜索並使用 @EntityGraph 加載角色
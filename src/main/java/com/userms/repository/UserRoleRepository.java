@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +56,38 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UserRole.Use
     @Query("SELECT ur.user FROM UserRole ur WHERE ur.id.roleId = :roleId AND ur.user.isActive = :isActive")
     List<User> findUsersByRoleIdAndIsActive(@Param("roleId") String roleId, @Param("isActive") Boolean isActive);
 
+    @Query("SELECT ur.id.userId FROM UserRole ur WHERE ur.id.roleId = :roleId")
+    List<String> findUserIdsByRoleId(@Param("roleId") String roleId);
+
+    /**
+     * 在指定用戶中找出已擁有該角色者（批次新增／移除成員時計算差集），IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT ur.id.userId FROM UserRole ur WHERE ur.id.roleId = :roleId AND ur.id.userId IN :userIds")
+    List<String> findMemberIds(@Param("roleId") String roleId, @Param("userIds") Collection<String> userIds);
+
+    @Query("SELECT ur.id.userId FROM UserRole ur WHERE ur.id.roleId = :roleId AND ur.id.userId IN (SELECT t.id FROM TempId t)")
+    List<String> findMemberIdsInTempIds(@Param("roleId") String roleId);
+
+    /**
+     * 多個角色的所有成員（不論用戶啟用狀態），IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT DISTINCT ur.id.userId FROM UserRole ur WHERE ur.id.roleId IN :roleIds")
+    List<String> findMemberIdsByRoleIds(@Param("roleIds") Collection<String> roleIds);
+
+    /**
+     * 擁有任一指定權限之角色的所有成員，IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT DISTINCT ur.id.userId FROM UserRole ur " +
+           "JOIN RolePermission rp ON ur.id.roleId = rp.id.roleId " +
+           "WHERE rp.id.permissionId IN :permissionIds")
+    List<String> findMemberIdsByPermissionIds(@Param("permissionIds") Collection<String> permissionIds);
+
+    /**
+     * 在指定角色中找出仍有用戶使用者，IN 清單不可超過 1000 筆
+     */
+    @Query("SELECT DISTINCT ur.id.roleId FROM UserRole ur WHERE ur.id.roleId IN :roleIds")
+    List<String> findRoleIdsInUse(@Param("roleIds") Collection<String> roleIds);
+
     @Query("SELECT COUNT(ur) FROM UserRole ur WHERE ur.id.roleId = :roleId")
     long countUsersByRoleId(@Param("roleId") String roleId);
 
@@ -82,13 +115,25 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UserRole.Use
     @Query("DELETE FROM UserRole ur WHERE ur.id.roleId = :roleId")
     int deleteAllByRoleId(@Param("roleId") String roleId);
 
+    @Modifying
+    @Query("DELETE FROM UserRole ur WHERE ur.id.userId IN :userIds")
+    int deleteAllByUserIds(@Param("userIds") Collection<String> userIds);
+
+    @Modifying
+    @Query("DELETE FROM UserRole ur WHERE ur.id.userId IN (SELECT t.id FROM TempId t)")
+    int deleteAllByUserIdsInTempIds();
+
     @Modifying
     @Query("DELETE FROM UserRole ur WHERE ur.id.userId = :userId AND ur.id.roleId IN :roleIds")
     int deleteByUserIdAndRoleIds(@Param("userId") String userId, @Param("roleIds") List<String> roleIds);
 
     @Modifying
     @Query("DELETE FROM UserRole ur WHERE ur.id.userId IN :userIds AND ur.id.roleId = :roleId")
-    int deleteByUserIdsAndRoleId(@Param("userIds") List<String> userIds, @Param("roleId") String roleId);
+    int deleteByUserIdsAndRoleId(@Param("userIds") Collection<String> userIds, @Param("roleId") String roleId);
+
+    @Modifying
+    @Query("DELETE FROM UserRole ur WHERE ur.id.userId IN (SELECT t.id FROM TempId t) AND ur.id.roleId = :roleId")
+    int deleteByUserIdsInTempIdsAndRoleId(@Param("roleId") String roleId);
 
     // ===== 權限檢查查詢 =====
 
@@ -156,4 +201,16 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UserRole.Use
            "JOIN ur.user u " +
            "WHERE ur.id.roleId IN :roleIds AND u.isActive = true")
     List<Object[]> findUserIdsByRoleIds(@Param("roleIds") List<String> roleIds);
-}
\ No newline at end of file
+
+    /**
+     * 批次統計多個角色的啟用中用戶數量
+     *
+     * @param roleIds 角色 ID 列表
+     * @return 返回 [roleId, count] 的對象數組列表（沒有用戶的角色不會出現）
+     */
+    @Query("SELECT ur.id.roleId, COUNT(ur) FROM UserRole ur " +
+           "JOIN ur.user u " +
+           "WHERE ur.id.roleId IN :roleIds AND u.isActive = true " +
+           "GROUP BY ur.id.roleId")
+    List<Object[]> countActiveUsersByRoleIds(@Param("roleIds") List<String> roleIds);
+}
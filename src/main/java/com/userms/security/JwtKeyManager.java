@@ -0,0 +1,399 @@
+package com.userms.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.userms.entity.JwtSigningKey;
+import com.userms.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JWT 簽名金鑰管理
+ * <p>
+ * 支援兩種模式：
+ * <ul>
+ *     <li>HS256（預設）：使用 {@code app.jwt.secret} 對稱金鑰，與既有 Token 相容</li>
+ *     <li>ES256：非對稱金鑰，Token header 帶 {@code kid}，公鑰透過 {@code /.well-known/jwks.json} 發布，
+ *     其他服務可在本地驗證 Token，不需回呼本服務或共用密鑰</li>
+ * </ul>
+ * ES256 金鑰存放於 {@code jwt_signing_keys} 表，所有節點定期重新載入；
+ * 新金鑰建立後會延遲一段時間才開始簽名，確保其他節點與下游服務已取得其公鑰。
+ * 舊金鑰在其簽出的 Token 都失效（含刷新寬限期）後才移除。
+ * <p>
+ * 每把金鑰帶有遞增的 {@code generation}，由唯一約束 {@code uk_jwt_signing_keys_generation} 保證
+ * 同一輪替週期只有一個節點能寫入新金鑰，其餘節點插入失敗後改為載入勝出者的金鑰。
+ * 私鑰以 {@code app.jwt.signing.key-encryption-key}（AES-GCM）加密後才寫入資料庫。
+ * 遇到未知 kid 時只做限流的唯讀重新載入，不會在請求執行緒上建立金鑰。
+ */
+@Slf4j
+@Component
+public class JwtKeyManager extends LocatorAdapter<Key> {
+
+    public static final String ALGORITHM_HS256 = "HS256";
+    public static final String ALGORITHM_ES256 = "ES256";
+
+    /**
+     * 與 JwtUtil.canTokenBeRefreshed 一致：過期後 24 小時內仍可刷新
+     */
+    private static final Duration REFRESH_GRACE = Duration.ofHours(24);
+
+    /**
+     * 遇到未知 kid 時，最短的重新載入間隔
+     */
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_MS = 10_000L;
+
+    /**
+     * 加密私鑰的格式版本前綴，未帶前綴的資料視為錯誤
+     */
+    private static final String ENCRYPTED_PREFIX = "enc:v1:";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository signingKeyRepository;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${app.jwt.expiration}")
+    private Long jwtExpiration;
+
+    @Value("${app.jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${app.jwt.signing.rotation-interval:PT24H}")
+    private Duration rotationInterval;
+
+    @Value("${app.jwt.signing.activation-delay:PT10M}")
+    private Duration activationDelay;
+
+    @Value("${app.jwt.signing.key-encryption-key:}")
+    private String keyEncryptionKey;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final AtomicLong lastUnknownKidReload = new AtomicLong();
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile KeySnapshot snapshot;
+    private SecretKey privateKeyEncryptionKey;
+
+    public JwtKeyManager(JwtSigningKeyRepository signingKeyRepository) {
+        this.signingKeyRepository = signingKeyRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        if (isAsymmetric()) {
+            this.privateKeyEncryptionKey = decodeKeyEncryptionKey(keyEncryptionKey);
+            reloadKeys();
+        } else {
+            Key secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            this.snapshot = new KeySnapshot(new ActiveKey(null, secretKey), Map.of(), List.of());
+        }
+        log.info("JWT signing algorithm: {}", algorithm);
+    }
+
+    /**
+     * 是否使用非對稱簽名
+     */
+    public boolean isAsymmetric() {
+        return ALGORITHM_ES256.equalsIgnoreCase(algorithm);
+    }
+
+    /**
+     * 取得目前用於簽名的金鑰
+     */
+    public ActiveKey getSigningKey() {
+        return snapshot.active();
+    }
+
+    /**
+     * 取得 JWKS（只包含公鑰）
+     */
+    public Map<String, Object> getJwkSet() {
+        return new JWKSet(snapshot.publicJwks()).toJSONObject(true);
+    }
+
+    /**
+     * 依據 header 中的 kid 找出驗證金鑰
+     * 由共用的 JwtParser 呼叫，查找為 O(1) 的 Map 讀取
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        KeySnapshot current = snapshot;
+        if (!isAsymmetric()) {
+            return current.active().key();
+        }
+
+        String kid = header.getKeyId();
+        if (kid == null) {
+            throw new IllegalArgumentException("JWT header 缺少 kid");
+        }
+
+        Key key = current.verificationKeys().get(kid);
+        if (key == null && reloadForUnknownKid()) {
+            key = snapshot.verificationKeys().get(kid);
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("未知的 JWT kid: " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * 定期重新載入金鑰並在需要時輪替
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.signing.reload-interval:PT5M}",
+            initialDelayString = "${app.jwt.signing.reload-interval:PT5M}")
+    public void scheduledReload() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        try {
+            reloadKeys();
+            int purged = signingKeyRepository.deleteExpiredKeys(LocalDateTime.now());
+            if (purged > 0) {
+                log.info("移除 {} 把過期的 JWT 簽名金鑰", purged);
+            }
+        } catch (Exception e) {
+            log.error("JWT 簽名金鑰重新載入失敗，沿用現有金鑰: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 未知 kid 的唯讀重新載入：全節點最多每 10 秒一次，且不等待進行中的重新載入
+     */
+    private boolean reloadForUnknownKid() {
+        long now = System.currentTimeMillis();
+        long last = lastUnknownKidReload.get();
+        if (now - last < UNKNOWN_KID_RELOAD_INTERVAL_MS || !lastUnknownKidReload.compareAndSet(last, now)) {
+            return false;
+        }
+        if (!reloadLock.tryLock()) {
+            return false;
+        }
+        try {
+            List<JwtSigningKey> keys = findUnexpiredKeys(LocalDateTime.now());
+            if (keys.isEmpty()) {
+                return false;
+            }
+            applySnapshot(keys, LocalDateTime.now());
+            return true;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadKeys() {
+        reloadLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<JwtSigningKey> keys = findUnexpiredKeys(now);
+
+            if (keys.isEmpty() || needsRotation(keys, now)) {
+                createKey(keys.isEmpty() ? now : now.plus(activationDelay));
+                // 不論自己或其他節點寫入成功，都以資料庫內容為準
+                keys = findUnexpiredKeys(now);
+            }
+            if (keys.isEmpty()) {
+                throw new IllegalStateException("沒有可用的 JWT 簽名金鑰");
+            }
+
+            applySnapshot(keys, now);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private List<JwtSigningKey> findUnexpiredKeys(LocalDateTime now) {
+        return signingKeyRepository.findByAlgorithmAndExpiresTimeAfterOrderByActivatedTimeDesc(ALGORITHM_ES256, now);
+    }
+
+    private void applySnapshot(List<JwtSigningKey> keys, LocalDateTime now) {
+        Map<String, Key> verificationKeys = new HashMap<>();
+        List<JWK> publicJwks = new ArrayList<>();
+        JwtSigningKey signing = null;
+
+        for (JwtSigningKey signingKey : keys) {
+            PublicKey publicKey = decodePublicKey(signingKey.getPublicKey());
+            verificationKeys.put(signingKey.getKid(), publicKey);
+            publicJwks.add(new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey)
+                    .keyID(signingKey.getKid())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.ES256)
+                    .build());
+
+            // 依啟用時間倒序，第一把已啟用的金鑰即為目前的簽名金鑰
+            if (signing == null && !signingKey.getActivatedTime().isAfter(now)) {
+                signing = signingKey;
+            }
+        }
+
+        if (signing == null) {
+            // 只有尚未啟用的金鑰（例如節點間時鐘偏差），改用最早啟用的一把，不另外建立金鑰
+            signing = keys.get(keys.size() - 1);
+        }
+
+        ActiveKey active = new ActiveKey(signing.getKid(), decryptPrivateKey(signing));
+        this.snapshot = new KeySnapshot(active, Map.copyOf(verificationKeys), List.copyOf(publicJwks));
+        log.debug("已載入 {} 把 JWT 驗證金鑰，目前簽名 kid: {}", verificationKeys.size(), active.kid());
+    }
+
+    /**
+     * 最新的金鑰啟用時間加上輪替週期即將到達時，預先建立下一把金鑰
+     */
+    private boolean needsRotation(List<JwtSigningKey> keys, LocalDateTime now) {
+        JwtSigningKey newest = keys.get(0);
+        return !newest.getActivatedTime().plus(rotationInterval).isAfter(now.plus(activationDelay));
+    }
+
+    /**
+     * 以下一個 generation 寫入新金鑰；其他節點已寫入同一 generation 時由唯一約束擋下
+     */
+    private void createKey(LocalDateTime activatedTime) {
+        Long latestGeneration = signingKeyRepository.findMaxGeneration(ALGORITHM_ES256);
+        long generation = latestGeneration == null ? 1L : latestGeneration + 1;
+
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        LocalDateTime expiresTime = activatedTime
+                .plus(rotationInterval)
+                .plus(activationDelay)
+                .plus(Duration.ofMillis(jwtExpiration))
+                .plus(REFRESH_GRACE);
+        String kid = UUID.randomUUID().toString();
+
+        JwtSigningKey signingKey = new JwtSigningKey(
+                kid,
+                ALGORITHM_ES256,
+                generation,
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                encryptPrivateKey(kid, keyPair.getPrivate()),
+                activatedTime,
+                expiresTime,
+                LocalDateTime.now());
+
+        try {
+            signingKeyRepository.saveAndFlush(signingKey);
+            log.info("建立新的 JWT 簽名金鑰 kid: {}，generation: {}，啟用時間: {}", kid, generation, activatedTime);
+        } catch (DataIntegrityViolationException e) {
+            log.info("JWT 簽名金鑰 generation {} 已由其他節點建立，改為載入現有金鑰", generation);
+        }
+    }
+
+    private static SecretKey decodeKeyEncryptionKey(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalStateException("ES256 模式必須設定 app.jwt.signing.key-encryption-key（Base64 編碼的 AES 金鑰）");
+        }
+        byte[] bytes = Base64.getDecoder().decode(encoded.trim());
+        if (bytes.length != 16 && bytes.length != 24 && bytes.length != 32) {
+            throw new IllegalStateException("app.jwt.signing.key-encryption-key 長度必須為 128、192 或 256 位元");
+        }
+        return new SecretKeySpec(bytes, "AES");
+    }
+
+    /**
+     * 以 AES-GCM 加密私鑰，kid 作為附加驗證資料，避免密文被搬到其他金鑰列使用
+     */
+    private String encryptPrivateKey(String kid, PrivateKey privateKey) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, privateKeyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(privateKey.getEncoded());
+            byte[] payload = ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array();
+            return ENCRYPTED_PREFIX + Base64.getEncoder().encodeToString(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("無法加密 JWT 私鑰", e);
+        }
+    }
+
+    private PrivateKey decryptPrivateKey(JwtSigningKey signingKey) {
+        String stored = signingKey.getPrivateKey();
+        if (!stored.startsWith(ENCRYPTED_PREFIX)) {
+            throw new IllegalStateException("JWT 私鑰未加密 kid: " + signingKey.getKid());
+        }
+        try {
+            byte[] payload = Base64.getDecoder().decode(stored.substring(ENCRYPTED_PREFIX.length()));
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, privateKeyEncryptionKey,
+                    new GCMParameterSpec(GCM_TAG_BITS, payload, 0, GCM_IV_LENGTH));
+            cipher.updateAAD(signingKey.getKid().getBytes(StandardCharsets.UTF_8));
+            return decodePrivateKey(cipher.doFinal(payload, GCM_IV_LENGTH, payload.length - GCM_IV_LENGTH));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("無法解密 JWT 私鑰 kid: " + signingKey.getKid(), e);
+        }
+    }
+
+    private static PublicKey decodePublicKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("無法解析 JWT 公鑰", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance("EC")
+                    .generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("無法解析 JWT 私鑰", e);
+        }
+    }
+
+    /**
+     * 目前的簽名金鑰
+     *
+     * @param kid 金鑰識別碼（HS256 模式為 null）
+     * @param key 簽名金鑰
+     */
+    public record ActiveKey(String kid, Key key) {
+    }
+
+    /**
+     * 不可變的金鑰快照，重新載入時整體替換
+     */
+    private record KeySnapshot(ActiveKey active, Map<String, Key> verificationKeys, List<JWK> publicJwks) {
+    }
+}
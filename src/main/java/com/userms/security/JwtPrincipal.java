@@ -0,0 +1,31 @@
+package com.userms.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * JWT 驗證後的登入者
+ * {@link #getName()} 維持回傳使用者名稱，{@code Principal#getName()} 的既有用法不受影響；
+ * 使用者 ID 供批次更新寫入 update_user 等審計欄位
+ *
+ * @param userId   使用者 ID（舊版 Token 可能為 null）
+ * @param username 使用者名稱
+ */
+public record JwtPrincipal(String userId, String username) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * 目前請求登入者的使用者 ID，未登入或舊版 Token 時為 null
+     */
+    public static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                ? principal.userId()
+                : null;
+    }
+}
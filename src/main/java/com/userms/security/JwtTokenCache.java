@@ -0,0 +1,151 @@
+package com.userms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.userms.utils.JwtUtil;
+import com.userms.utils.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已驗證 Token 快取
+ * <p>
+ * 以 Token 的 SHA-256 摘要為鍵，快取驗證結果直到 Token 本身的到期時間；
+ * 格式錯誤或簽名無效的 Token 也會短暫快取（負向快取），
+ * 避免重複的垃圾 Token 每次都要計算一次 HMAC。
+ * 命中、未命中與淘汰數量透過 Actuator metrics 的 {@code cache.*{cache=jwt.verified}} 暴露。
+ */
+@Slf4j
+@Component
+public class JwtTokenCache {
+
+    private static final String CACHE_NAME = "jwt.verified";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final Cache<TokenDigest, CachedVerification> cache;
+
+    public JwtTokenCache(JwtUtil jwtUtil,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.jwt.cache.maximum-size:100000}") long maximumSize,
+                         @Value("${app.jwt.cache.negative-ttl:60s}") Duration negativeTtl) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new VerificationExpiry(negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 驗證 Token，優先使用快取結果
+     *
+     * @param token JWT Token
+     * @return 已驗證的 Token
+     * @throws IllegalArgumentException Token 無效、已過期或曾被判定為無效
+     */
+    public VerifiedToken verify(String token) {
+        TokenDigest key = TokenDigest.of(token);
+        CachedVerification cached = cache.getIfPresent(key);
+
+        if (cached == null) {
+            cached = doVerify(token);
+            cache.put(key, cached);
+        }
+
+        if (cached.token() == null) {
+            throw new IllegalArgumentException("Invalid JWT token (cached)");
+        }
+        if (cached.token().isExpiredAt(Instant.now())) {
+            cache.invalidate(key);
+            throw new IllegalArgumentException("JWT token expired");
+        }
+        return cached.token();
+    }
+
+    /**
+     * 移除指定 Token 的快取結果
+     */
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigest.of(token));
+    }
+
+    /**
+     * 清除所有快取結果
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private CachedVerification doVerify(String token) {
+        try {
+            return new CachedVerification(jwtUtil.verifyToken(token));
+        } catch (IllegalArgumentException e) {
+            log.debug("Caching negative verification result: {}", e.getMessage());
+            return CachedVerification.INVALID;
+        }
+    }
+
+    /**
+     * 快取的驗證結果，token 為 null 表示驗證失敗
+     */
+    private record CachedVerification(VerifiedToken token) {
+        static final CachedVerification INVALID = new CachedVerification(null);
+    }
+
+    /**
+     * Token 的 SHA-256 摘要，以四個 long 保存以降低比較成本
+     */
+    private record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest digest = SHA256.get();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+
+    /**
+     * 正向結果存活至 Token 到期；負向結果只保留固定時間
+     */
+    private record VerificationExpiry(long negativeTtlNanos) implements Expiry<TokenDigest, CachedVerification> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, CachedVerification value, long currentTime) {
+            if (value.token() == null) {
+                return negativeTtlNanos;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, value.token().remainingMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, CachedVerification value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, CachedVerification value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
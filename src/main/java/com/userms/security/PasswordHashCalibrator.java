@@ -0,0 +1,76 @@
+package com.userms.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * BCrypt 成本校準
+ * <p>
+ * 啟動時在目前硬體上實際量測雜湊時間，選出不超過目標延遲的最高 strength。
+ * BCrypt 每增加 1 個 strength 成本加倍，因此只量測最低 strength，
+ * 以 2 的次方推估後再實測選定的 strength 一次，避免啟動時跑高成本的雜湊。
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    private PasswordHashCalibrator() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 選出符合目標延遲的 BCrypt strength
+     *
+     * @param targetLatency 單次雜湊的目標延遲（以取樣最大值近似 p99）
+     * @param minStrength   最低 strength，即使超過目標延遲也不會低於此值
+     * @param maxStrength   最高 strength
+     * @param samples       每個 strength 的取樣次數
+     * @return 選定的 strength
+     */
+    public static int calibrateBCryptStrength(Duration targetLatency, int minStrength, int maxStrength, int samples) {
+        long targetNanos = targetLatency.toNanos();
+        String password = UUID.randomUUID().toString();
+
+        // 暖機，避免 JIT 編譯時間影響量測
+        new BCryptPasswordEncoder(minStrength).encode(password);
+
+        long baseNanos = measure(minStrength, password, samples);
+        if (baseNanos > targetNanos) {
+            log.warn("BCrypt strength {} 需要 {} ms，已超過目標 {} ms，使用最低 strength",
+                    minStrength, baseNanos / 1_000_000, targetLatency.toMillis());
+            return minStrength;
+        }
+
+        int strength = minStrength;
+        while (strength < maxStrength && (baseNanos << (strength + 1 - minStrength)) <= targetNanos) {
+            strength++;
+        }
+
+        // 實測推估結果，超過目標時往下調整
+        long measuredNanos = strength == minStrength ? baseNanos : measure(strength, password, samples);
+        while (strength > minStrength && measuredNanos > targetNanos) {
+            strength--;
+            measuredNanos = strength == minStrength ? baseNanos : measure(strength, password, samples);
+        }
+
+        log.info("BCrypt 成本校準完成: strength={}, 量測延遲={} ms, 目標={} ms",
+                strength, measuredNanos / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    /**
+     * 量測指定 strength 的雜湊時間，回傳取樣中的最大值
+     */
+    private static long measure(int strength, String password, int samples) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long max = 0;
+        for (int i = 0; i < Math.max(1, samples); i++) {
+            long start = System.nanoTime();
+            encoder.encode(password);
+            max = Math.max(max, System.nanoTime() - start);
+        }
+        return max;
+    }
+}
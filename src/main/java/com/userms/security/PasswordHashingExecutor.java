@@ -0,0 +1,247 @@
+package com.userms.security;
+
+import com.userms.common.ErrorCodes;
+import com.userms.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密碼雜湊專用執行緒池
+ * <p>
+ * BCrypt 為刻意設計的高 CPU 成本運算，若直接在 Tomcat 請求執行緒上執行，
+ * 登入尖峰會佔滿所有請求執行緒，連帶拖垮其他 API。
+ * 這裡以 CPU 核心數大小的執行緒池與有界佇列隔離雜湊運算：
+ * 佇列已滿時立即以 503 拒絕，只影響認證相關請求。
+ * <p>
+ * Metrics：
+ * <ul>
+ *     <li>{@code password.hashing.queue.depth}：等待中的雜湊工作數</li>
+ *     <li>{@code password.hashing.wait}：工作在佇列中的等待時間</li>
+ *     <li>{@code password.hashing.duration{operation=encode|matches}}：雜湊運算時間</li>
+ *     <li>{@code password.hashing.rejected}：因飽和或逾時被拒絕的次數</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    /** 批次雜湊在執行緒池飽和時的重試次數與退避時間 */
+    private static final int BULK_MAX_RETRIES = 50;
+    private static final long BULK_RETRY_BACKOFF_MS = 20;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.security.password.hashing.threads:0}") int threads,
+                                   @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.retryAfterSeconds = Math.max(1, timeout.toSeconds());
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time password hashing tasks spend queued")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "encode")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "matches")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the executor was saturated")
+                .register(meterRegistry);
+
+        log.info("密碼雜湊執行緒池: threads={}, queueCapacity={}", poolSize, queueCapacity);
+    }
+
+    /**
+     * 雜湊密碼
+     *
+     * @throws ServiceUnavailableException 執行緒池飽和或等待逾時
+     */
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeTimer));
+    }
+
+    /**
+     * 批次雜湊密碼（大量匯入用），回傳順序與輸入相同
+     * <p>
+     * 同時在途的工作數不超過執行緒數，佇列空間保留給登入與註冊；
+     * 執行緒池暫時飽和時短暫退避後重試，而非讓整批失敗。
+     *
+     * @throws ServiceUnavailableException 重試後仍飽和或等待逾時
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        String[] encoded = new String[rawPasswords.size()];
+        Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>(window);
+        int completed = 0;
+        for (CharSequence rawPassword : rawPasswords) {
+            if (inFlight.size() == window) {
+                encoded[completed++] = await(inFlight.poll());
+            }
+            inFlight.add(submitWithBackoff(() -> passwordEncoder.encode(rawPassword), encodeTimer));
+        }
+        while (!inFlight.isEmpty()) {
+            encoded[completed++] = await(inFlight.poll());
+        }
+        return Arrays.asList(encoded);
+    }
+
+    /**
+     * 驗證密碼
+     *
+     * @throws ServiceUnavailableException 執行緒池飽和或等待逾時
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 非同步驗證密碼，讓呼叫端在等待期間處理其他工作
+     *
+     * @throws ServiceUnavailableException 執行緒池飽和
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * 雜湊值是否使用過時的演算法或成本，需要重新雜湊（不耗費 CPU）
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 等待非同步雜湊結果，逾時或失敗時轉換為對應的例外
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejectedCounter.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw busy();
+        } catch (CancellationException e) {
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密碼雜湊失敗", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task, Timer operationTimer) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // 呼叫端已逾時放棄，不再浪費 CPU
+                    return;
+                }
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    operationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw busy();
+        }
+        return future;
+    }
+
+    private <T> CompletableFuture<T> submitWithBackoff(Supplier<T> task, Timer operationTimer) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return submit(task, operationTimer);
+            } catch (ServiceUnavailableException e) {
+                if (attempt >= BULK_MAX_RETRIES) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(BULK_RETRY_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private ServiceUnavailableException busy() {
+        return new ServiceUnavailableException("系統忙碌，請稍後再試", ErrorCodes.SERVICE_BUSY, retryAfterSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,389 @@
+package com.userms.security;
+
+import com.userms.entity.RevokedToken;
+import com.userms.repository.RevokedTokenRepository;
+import com.userms.utils.TransactionUtils;
+import com.userms.utils.VerifiedToken;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token 撤銷服務
+ * <p>
+ * 撤銷紀錄持久化於 {@code revoked_tokens} 表，記憶體中維護：
+ * <ul>
+ *     <li>Bloom filter：絕大多數未撤銷的 Token 只需幾次位元讀取即可放行</li>
+ *     <li>jti 集合：Bloom filter 命中時再確認，排除誤判</li>
+ *     <li>使用者撤銷時間點：停用帳戶或變更密碼時，使該使用者先前簽發的所有 Token 失效</li>
+ * </ul>
+ * 讀取路徑完全無鎖；節點啟動時由資料表重建，並定期增量同步其他節點新增的撤銷紀錄。
+ * 新增的撤銷紀錄在交易提交後才套用到記憶體，交易回滾時不會留下未持久化的撤銷。
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    /**
+     * 與 JwtUtil.canTokenBeRefreshed 一致：過期後 24 小時內仍可刷新，撤銷紀錄需保留到寬限期結束
+     */
+    private static final Duration REFRESH_GRACE = Duration.ofHours(24);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final EntityManager entityManager;
+    private final long jwtExpiration;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final int purgeBatchSize;
+    private final int insertBatchSize;
+    private final Duration syncOverlap;
+
+    /**
+     * jti -> 撤銷紀錄到期時間（epoch 毫秒）
+     */
+    private final ConcurrentMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * userId -> 使用者層級撤銷
+     */
+    private final ConcurrentMap<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+
+    /**
+     * 寫入與重建共用的鎖，確保重建期間新增的 jti 不會遺漏；讀取不需加鎖
+     */
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastSyncTime;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  EntityManager entityManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.jwt.expiration}") long jwtExpiration,
+                                  @Value("${app.jwt.revocation.expected-entries:100000}") int expectedEntries,
+                                  @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${app.jwt.revocation.purge-batch-size:1000}") int purgeBatchSize,
+                                  @Value("${app.jwt.revocation.insert-batch-size:500}") int insertBatchSize,
+                                  @Value("${app.jwt.revocation.sync-interval:PT30S}") Duration syncInterval) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.entityManager = entityManager;
+        this.jwtExpiration = jwtExpiration;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeBatchSize = purgeBatchSize;
+        this.insertBatchSize = insertBatchSize;
+        // 重疊一個同步週期，涵蓋其他節點尚未提交的交易
+        this.syncOverlap = syncInterval.multipliedBy(2);
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+
+        Gauge.builder("jwt.revocation.tokens", revokedTokens, ConcurrentMap::size)
+                .description("Revoked token ids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.users", revokedUsers, ConcurrentMap::size)
+                .description("User-wide revocations held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 啟動時由資料表重建記憶體結構
+     */
+    @PostConstruct
+    void init() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresTimeAfter(now);
+        synchronized (writeLock) {
+            active.forEach(this::applyToMemory);
+            rebuildBloomFilter();
+        }
+        this.lastSyncTime = now;
+        log.info("已載入 {} 筆 Token 撤銷紀錄", active.size());
+    }
+
+    /**
+     * 檢查 Token 是否已被撤銷（每個請求呼叫，O(1) 且不存取資料庫）
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (!revokedUsers.isEmpty() && token.userId() != null) {
+            UserRevocation revocation = revokedUsers.get(token.userId());
+            if (revocation != null && token.issuedAt() != null
+                    && token.issuedAt().getEpochSecond() <= revocation.cutoffEpochSecond()) {
+                return true;
+            }
+        }
+
+        String jti = token.tokenId();
+        return jti != null && bloomFilter.mightContain(jti) && revokedTokens.containsKey(jti);
+    }
+
+    /**
+     * 撤銷單一 Token（登出）
+     * 舊版未攜帶 jti 的 Token 無法個別撤銷，將於自身到期時失效
+     */
+    public void revokeToken(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            log.debug("Token 未攜帶 jti，略過撤銷: {}", token.subject());
+            return;
+        }
+
+        Instant expiresAt = token.expiresAt() != null
+                ? token.expiresAt()
+                : Instant.now().plusMillis(jwtExpiration);
+        RevokedToken revoked = new RevokedToken(
+                UUID.randomUUID().toString(),
+                token.tokenId(),
+                token.userId(),
+                RevokedToken.TYPE_TOKEN,
+                toLocalDateTime(expiresAt.plus(REFRESH_GRACE)),
+                LocalDateTime.now());
+
+        revokedTokenRepository.save(revoked);
+        TransactionUtils.afterCommit(() -> applyCommitted(List.of(revoked)));
+        log.info("Token 已撤銷: {}", token.subject());
+    }
+
+    /**
+     * 撤銷使用者目前為止簽發的所有 Token（停用帳戶、變更密碼、角色變更）
+     */
+    public void revokeAllForUser(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        RevokedToken revoked = new RevokedToken(
+                UUID.randomUUID().toString(),
+                null,
+                userId,
+                RevokedToken.TYPE_USER,
+                now.plus(Duration.ofMillis(jwtExpiration)).plus(REFRESH_GRACE),
+                now);
+
+        revokedTokenRepository.save(revoked);
+        TransactionUtils.afterCommit(() -> applyCommitted(List.of(revoked)));
+        log.info("已撤銷用戶 {} 的所有 Token", userId);
+    }
+
+    /**
+     * 撤銷多個使用者先前簽發的所有 Token（批次停用帳戶、角色或權限變更時使用）
+     * 需在交易中呼叫；紀錄以 persist 加上 JDBC batch 寫入，避免逐筆 merge 前的 SELECT。
+     * batch 大小只在寫入撤銷紀錄期間調整，結束後還原呼叫端 Session 原本的設定
+     */
+    public void revokeAllForUsers(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresTime = now.plus(Duration.ofMillis(jwtExpiration)).plus(REFRESH_GRACE);
+        List<RevokedToken> revocations = new ArrayList<>(userIds.size());
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(insertBatchSize);
+        try {
+            for (String userId : userIds) {
+                RevokedToken revoked = new RevokedToken(
+                        UUID.randomUUID().toString(), null, userId, RevokedToken.TYPE_USER, expiresTime, now);
+                entityManager.persist(revoked);
+                revocations.add(revoked);
+            }
+            entityManager.flush();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        TransactionUtils.afterCommit(() -> applyCommitted(revocations));
+        log.info("已撤銷 {} 位用戶的所有 Token", revocations.size());
+    }
+
+    /**
+     * 增量同步其他節點新增的撤銷紀錄
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval:PT30S}",
+            initialDelayString = "${app.jwt.revocation.sync-interval:PT30S}")
+    public void syncFromDatabase() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<RevokedToken> changes = revokedTokenRepository
+                    .findByRevokedTimeAfterAndExpiresTimeAfter(lastSyncTime.minus(syncOverlap), now);
+            if (!changes.isEmpty()) {
+                synchronized (writeLock) {
+                    changes.forEach(this::applyToMemory);
+                }
+            }
+            this.lastSyncTime = now;
+        } catch (Exception e) {
+            log.error("Token 撤銷紀錄同步失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 批次清除已過期的撤銷紀錄，並以剩餘紀錄重建 Bloom filter
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval:PT1H}",
+            initialDelayString = "${app.jwt.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int total = 0;
+            int deleted;
+            do {
+                deleted = revokedTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+                total += deleted;
+            } while (deleted >= purgeBatchSize);
+
+            long nowMillis = System.currentTimeMillis();
+            synchronized (writeLock) {
+                revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+                revokedUsers.values().removeIf(revocation -> revocation.expiresAtMillis() <= nowMillis);
+                rebuildBloomFilter();
+            }
+
+            if (total > 0) {
+                log.info("已清除 {} 筆過期的 Token 撤銷紀錄", total);
+            }
+        } catch (Exception e) {
+            log.error("清除過期 Token 撤銷紀錄失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    private void applyCommitted(List<RevokedToken> revocations) {
+        synchronized (writeLock) {
+            revocations.forEach(this::applyToMemory);
+        }
+    }
+
+    /**
+     * 呼叫端需持有 writeLock
+     */
+    private void applyToMemory(RevokedToken revoked) {
+        long expiresAtMillis = toEpochMillis(revoked.getExpiresTime());
+
+        if (RevokedToken.TYPE_USER.equals(revoked.getRevokeType())) {
+            // Token 的 iat 只精確到秒，無法分辨同一秒內簽發的先後；以「不晚於」比較，
+            // 與撤銷同一秒簽發的 Token 一併視為撤銷，寧可多要求一次登入也不放過撤銷前的 Token
+            long cutoffEpochSecond = Math.floorDiv(toEpochMillis(revoked.getRevokedTime()), 1000L);
+            revokedUsers.merge(revoked.getUserId(), new UserRevocation(cutoffEpochSecond, expiresAtMillis),
+                    (existing, added) -> existing.cutoffEpochSecond() >= added.cutoffEpochSecond() ? existing : added);
+            return;
+        }
+
+        if (revoked.getJti() != null) {
+            revokedTokens.put(revoked.getJti(), expiresAtMillis);
+            bloomFilter.add(revoked.getJti());
+            // 超出預估容量時擴充，維持誤判率
+            if (revokedTokens.size() > bloomFilter.capacity()) {
+                rebuildBloomFilter();
+            }
+        }
+    }
+
+    /**
+     * 呼叫端需持有 writeLock
+     */
+    private void rebuildBloomFilter() {
+        int capacity = Math.max(expectedEntries, revokedTokens.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::add);
+        this.bloomFilter = rebuilt;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * 使用者層級撤銷
+     *
+     * @param cutoffEpochSecond 在此秒（含）之前簽發的 Token 均視為撤銷
+     * @param expiresAtMillis   紀錄到期時間
+     */
+    private record UserRevocation(long cutoffEpochSecond, long expiresAtMillis) {
+    }
+
+    /**
+     * 以 AtomicLongArray 實作的 Bloom filter，add 與 mightContain 皆無鎖
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitSize;
+        private final int hashFunctions;
+        private final int capacity;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = Math.max(capacity, 1);
+            long m = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (m + 63) >>> 6);
+            this.bits = new AtomicLongArray(words);
+            this.bitSize = (long) words << 6;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / this.capacity * Math.log(2)));
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        void add(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitSize);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitSize);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 64 位元 FNV-1a
+         */
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+
+        /**
+         * SplitMix64 finalizer，產生第二個獨立雜湊值（double hashing）
+         */
+        private static long mix(long h) {
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return (h ^ (h >>> 31)) | 1L;
+        }
+    }
+}
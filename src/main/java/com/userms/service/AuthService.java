@@ -8,16 +8,23 @@ import com.userms.dto.UserRegisterDTO;
 import com.userms.entity.Role;
 import com.userms.entity.User;
 import com.userms.exception.BusinessException;
+import com.userms.repository.RolePermissionRepository;
 import com.userms.repository.UserRepository;
 import com.userms.repository.UserRoleRepository;
+import com.userms.security.LoginThrottle;
+import com.userms.security.PasswordHashingExecutor;
+import com.userms.security.TokenRevocationService;
 import com.userms.utils.JwtUtil;
+import com.userms.utils.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -26,8 +33,14 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RolePermissionRepository rolePermissionRepository;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottle loginThrottle;
+    private final UserDTOCache userDTOCache;
+    private final UserSearchIndex userSearchIndex;
+    private final TypeaheadIndex typeaheadIndex;
 
     @Transactional
     public UserDTO register(UserRegisterDTO registerDTO) {
@@ -35,37 +48,66 @@ public class AuthService {
 
         validateRegisterData(registerDTO);
 
+        // 使用者名稱與電子郵件的唯一性由資料庫約束保證，立即 flush 以在此回報衝突
         User user = createUser(registerDTO);
-        User savedUser = userRepository.save(user);
+        User savedUser = userRepository.saveAndFlush(user);
+        userSearchIndex.index(savedUser);
+        typeaheadIndex.putUser(savedUser);
 
         log.info("用戶註冊成功: {}", savedUser.getUsername());
         return convertToUserDTO(savedUser);
     }
 
-    public AuthResponseDTO login(UserLoginDTO loginDTO) {
+    public AuthResponseDTO login(UserLoginDTO loginDTO, String clientIp) {
         log.info("用戶嘗試登入: {}", loginDTO.getUsernameOrEmail());
 
-        User user = findUserByUsernameOrEmail(loginDTO.getUsernameOrEmail());
+        // 在查詢資料庫與 BCrypt 驗證之前先節流
+        loginThrottle.acquire(loginDTO.getUsernameOrEmail(), clientIp);
+
+        LoginAccount account = findLoginAccount(loginDTO.getUsernameOrEmail());
+        User user = account.user();
 
         if (!user.isActive()) {
             throw new BusinessException("帳戶已被停用", ErrorCodes.USER_INACTIVE);
         }
 
-        if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPasswordHash())) {
+        // BCrypt 在專用執行緒池執行；密碼正確後才查詢權限代碼，失敗的嘗試不多花一次資料庫往返
+        CompletableFuture<Boolean> passwordMatches =
+                passwordHashingExecutor.matchesAsync(loginDTO.getPassword(), user.getPasswordHash());
+        if (!passwordHashingExecutor.await(passwordMatches)) {
             throw new BusinessException("用戶名或密碼錯誤", ErrorCodes.INVALID_CREDENTIALS);
         }
+        List<String> permissions = rolePermissionRepository.findPermissionCodesByUserId(user.getId());
+
+        loginThrottle.reset(loginDTO.getUsernameOrEmail());
+        rehashIfNeeded(user, loginDTO.getPassword());
 
-        String token = jwtUtil.generateToken(user.getUsername());
-        UserDTO userDTO = convertToUserDTO(user);
+        UserDTO userDTO = convertToUserDTO(user, account.roleCodes());
+        String token = jwtUtil.generateToken(userDTO.getId(), userDTO.getUsername(), userDTO.getRoles(), permissions);
 
         log.info("用戶登入成功: {}", user.getUsername());
         return new AuthResponseDTO(token, userDTO);
     }
 
+    /**
+     * 登出：撤銷目前的 Token
+     * 無效或已過期的 Token 不需撤銷，直接視為登出成功
+     */
+    public void logout(String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            VerifiedToken verified = jwtUtil.verifyToken(token);
+            tokenRevocationService.revokeToken(verified);
+            log.info("用戶登出成功: {}", verified.subject());
+        } catch (IllegalArgumentException e) {
+            log.debug("登出時 Token 無效，略過撤銷: {}", e.getMessage());
+        }
+    }
+
     public UserDTO getUserInfo(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BusinessException("用戶不存在", ErrorCodes.USER_NOT_FOUND));
-        return convertToUserDTO(user);
+        return userDTOCache.getByUsername(username, this::loadUserByUsername);
     }
 
     public AuthResponseDTO refreshToken(String oldToken) {
@@ -77,20 +119,23 @@ public class AuthService {
         }
         
         try {
-            // 從舊 Token 獲取用戶名
-            String username = jwtUtil.getUsernameFromToken(oldToken);
+            // 從舊 Token 獲取用戶名（允許已過期），已撤銷的 Token 不可刷新
+            VerifiedToken verified = jwtUtil.readTokenIgnoringExpiration(oldToken);
+            if (tokenRevocationService.isRevoked(verified)) {
+                throw new BusinessException("Token 已失效，請重新登入", ErrorCodes.INVALID_TOKEN);
+            }
+            String username = verified.subject();
             
             // 驗證用戶是否仍然存在且啟用
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new BusinessException("用戶不存在", ErrorCodes.USER_NOT_FOUND));
+            UserDTO userDTO = userDTOCache.getByUsername(username, this::loadUserByUsername);
             
-            if (!user.isActive()) {
+            if (!Boolean.TRUE.equals(userDTO.getIsActive())) {
                 throw new BusinessException("帳戶已被停用", ErrorCodes.USER_INACTIVE);
             }
             
-            // 生成新的 Token
-            String newToken = jwtUtil.refreshToken(oldToken);
-            UserDTO userDTO = convertToUserDTO(user);
+            // 生成新的 Token（帶入最新的角色與權限）
+            String newToken = jwtUtil.refreshToken(oldToken, userDTO.getId(), userDTO.getRoles(),
+                    rolePermissionRepository.findPermissionCodesByUserId(userDTO.getId()));
             
             log.info("Token 刷新成功: {}", username);
             return new AuthResponseDTO(newToken, userDTO);
@@ -103,15 +148,27 @@ public class AuthService {
         }
     }
 
-    private void validateRegisterData(UserRegisterDTO registerDTO) {
-        if (userRepository.existsByUsername(registerDTO.getUsername())) {
-            throw new BusinessException("使用者名稱已存在", ErrorCodes.USERNAME_EXISTS);
+    /**
+     * 密碼雜湊使用過時的演算法或成本時，以登入時取得的明文重新雜湊並保存
+     * 失敗不影響登入，下次登入會再嘗試
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        if (!passwordHashingExecutor.needsRehash(oldHash)) {
+            return;
         }
-
-        if (userRepository.existsByEmail(registerDTO.getEmail())) {
-            throw new BusinessException("電子郵件已被使用", ErrorCodes.EMAIL_EXISTS);
+        try {
+            String newHash = passwordHashingExecutor.encode(rawPassword);
+            // 以舊雜湊值為條件更新，避免覆蓋同時間變更的密碼
+            userRepository.updatePasswordHash(user.getId(), oldHash, newHash,
+                    LocalDateTime.now(), System.currentTimeMillis());
+            log.info("用戶密碼雜湊已升級: {}", user.getUsername());
+        } catch (Exception e) {
+            log.warn("用戶密碼雜湊升級失敗: {}, {}", user.getUsername(), e.getMessage());
         }
+    }
 
+    private void validateRegisterData(UserRegisterDTO registerDTO) {
         if (!registerDTO.getPassword().equals(registerDTO.getConfirmPassword())) {
             throw new BusinessException("密碼與確認密碼不一致", ErrorCodes.PASSWORD_MISMATCH);
         }
@@ -121,7 +178,7 @@ public class AuthService {
         User user = new User();
         user.setUsername(registerDTO.getUsername());
         user.setEmail(registerDTO.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(registerDTO.getPassword()));
+        user.setPasswordHash(passwordHashingExecutor.encode(registerDTO.getPassword()));
         user.setFirstName(registerDTO.getFirstName());
         user.setLastName(registerDTO.getLastName());
         user.setIsActive(true);
@@ -137,12 +194,62 @@ public class AuthService {
         return user;
     }
 
-    private User findUserByUsernameOrEmail(String usernameOrEmail) {
-        return userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
-                .orElseThrow(() -> new BusinessException("用戶名或密碼錯誤", ErrorCodes.INVALID_CREDENTIALS));
+    /**
+     * 以單次查詢取得登入所需的使用者欄位與啟用中的角色代碼
+     * 使用者名稱不允許包含 '@'，因此依輸入格式優先查詢 email 或 username 其中一個唯一索引；
+     * 含 '@' 但查無 email 時再以 username 查詢，相容驗證規則加入前已存在的使用者名稱
+     */
+    private LoginAccount findLoginAccount(String usernameOrEmail) {
+        boolean looksLikeEmail = usernameOrEmail.indexOf('@') >= 0;
+        List<Object[]> rows = looksLikeEmail
+                ? userRepository.findLoginRowsByEmail(usernameOrEmail)
+                : userRepository.findLoginRowsByUsername(usernameOrEmail);
+        if (rows.isEmpty() && looksLikeEmail) {
+            rows = userRepository.findLoginRowsByUsername(usernameOrEmail);
+        }
+        if (rows.isEmpty()) {
+            throw new BusinessException("用戶名或密碼錯誤", ErrorCodes.INVALID_CREDENTIALS);
+        }
+
+        Object[] first = rows.get(0);
+        User user = new User();
+        user.setId((String) first[0]);
+        user.setUsername((String) first[1]);
+        user.setEmail((String) first[2]);
+        user.setFirstName((String) first[3]);
+        user.setLastName((String) first[4]);
+        user.setIsActive((Boolean) first[5]);
+        user.setCreatedTime((LocalDateTime) first[6]);
+        user.setUpdatedTime((LocalDateTime) first[7]);
+        user.setPasswordHash((String) first[8]);
+
+        List<String> roleCodes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[9] != null) {
+                roleCodes.add((String) row[9]);
+            }
+        }
+        return new LoginAccount(user, roleCodes);
+    }
+
+    /**
+     * 登入查詢結果（User 僅作為欄位容器，未受 JPA 管理）
+     */
+    private record LoginAccount(User user, List<String> roleCodes) {
+    }
+
+    private UserDTO loadUserByUsername(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new BusinessException("用戶不存在", ErrorCodes.USER_NOT_FOUND));
+        return convertToUserDTO(user);
     }
 
     private UserDTO convertToUserDTO(User user) {
+        List<Role> roles = userRoleRepository.findRolesByUserIdAndIsActive(user.getId(), true);
+        return convertToUserDTO(user, roles.stream().map(Role::getRoleCode).toList());
+    }
+
+    private UserDTO convertToUserDTO(User user, List<String> roleCodes) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setUsername(user.getUsername());
@@ -153,10 +260,7 @@ public class AuthService {
         dto.setIsActive(user.getIsActive());
         dto.setCreatedTime(user.getCreatedTime());
         dto.setUpdatedTime(user.getUpdatedTime());
-
-        List<Role> roles = userRoleRepository.findRolesByUserIdAndIsActive(user.getId(), true);
-        dto.setRoles(roles.stream().map(Role::getRoleCode).toList());
-
+        dto.setRoles(roleCodes);
         return dto;
     }
 }
\ No newline at end of file
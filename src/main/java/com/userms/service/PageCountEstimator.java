@@ -0,0 +1,59 @@
+package com.userms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 分頁總數估計值（count=estimate）
+ * <p>
+ * 每個查詢鍵第一次使用時同步執行一次 COUNT，之後由排程在背景定期重新計算，
+ * 請求本身只讀取快取值，不再對整表執行 COUNT。
+ * 估計值最多落後一個刷新週期，適合只需顯示約略總數的列表頁。
+ */
+@Slf4j
+@Component
+public class PageCountEstimator {
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    /**
+     * 取得估計總數
+     *
+     * @param key     查詢鍵，例如 {@code users}、{@code roles.active}
+     * @param counter 精確計數查詢，供首次載入與背景刷新使用
+     */
+    public long estimate(String key, LongSupplier counter) {
+        return counts.computeIfAbsent(key, k -> new CachedCount(counter, counter.getAsLong())).value;
+    }
+
+    /**
+     * 定期在背景重新計算所有已使用過的查詢鍵
+     */
+    @Scheduled(fixedDelayString = "${app.pagination.count-refresh-interval:PT1M}",
+            initialDelayString = "${app.pagination.count-refresh-interval:PT1M}")
+    public void refresh() {
+        counts.forEach((key, cached) -> {
+            try {
+                cached.value = cached.counter.getAsLong();
+            } catch (Exception e) {
+                log.warn("分頁總數估計值刷新失敗，沿用舊值 key={}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static final class CachedCount {
+
+        private final LongSupplier counter;
+        private volatile long value;
+
+        private CachedCount(LongSupplier counter, long value) {
+            this.counter = counter;
+            this.value = value;
+        }
+    }
+}
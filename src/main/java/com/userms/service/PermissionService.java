@@ -1,22 +1,39 @@
 package com.userms.service;
 
+import com.userms.common.CountMode;
 import com.userms.common.ErrorCodes;
+import com.userms.common.CursorResult;
 import com.userms.common.PageResult;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.PermissionCreateDTO;
 import com.userms.dto.PermissionDTO;
+import com.userms.dto.PermissionSearchCriteriaDTO;
 import com.userms.entity.Permission;
 import com.userms.exception.BusinessException;
+import com.userms.repository.ChunkedInListExecutor;
+import com.userms.repository.KeysetPager;
 import com.userms.repository.PermissionRepository;
+import com.userms.repository.SearchSpecifications;
 import com.userms.repository.RolePermissionRepository;
+import com.userms.repository.UserRoleRepository;
+import com.userms.security.JwtPrincipal;
+import com.userms.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
 @Slf4j
 @Service
@@ -25,23 +42,75 @@ public class PermissionService {
 
     private final PermissionRepository permissionRepository;
     private final RolePermissionRepository rolePermissionRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final PageCountEstimator pageCountEstimator;
+    private final TypeaheadIndex typeaheadIndex;
+    private final ChunkedInListExecutor inListExecutor;
+    private final TokenRevocationService tokenRevocationService;
 
     public PageResult<PermissionDTO> getAllPermissions(Pageable pageable) {
-        Page<Permission> permissionPage = permissionRepository.findAll(pageable);
-        List<PermissionDTO> permissionDTOs = permissionPage.getContent().stream()
-                .map(this::convertToPermissionDTO)
-                .toList();
-        
-        return PageResult.of(permissionDTOs, permissionPage.getNumber(), permissionPage.getSize(), permissionPage.getTotalElements());
+        return getAllPermissions(pageable, CountMode.EXACT);
+    }
+
+    /**
+     * 分頁查詢權限，依 countMode 決定總數的計算方式
+     */
+    public PageResult<PermissionDTO> getAllPermissions(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<Permission> permissionPage = permissionRepository.findAll(pageable);
+            List<PermissionDTO> permissionDTOs = convertToPermissionDTOs(permissionPage.getContent());
+
+            return PageResult.of(permissionDTOs, permissionPage.getNumber(), permissionPage.getSize(), permissionPage.getTotalElements());
+        }
+
+        Slice<Permission> permissionSlice = permissionRepository.findSliceBy(pageable);
+        return toSliceResult(permissionSlice, countMode, "permissions", permissionRepository::count);
     }
 
     public PageResult<PermissionDTO> getActivePermissions(Pageable pageable) {
-        Page<Permission> permissionPage = permissionRepository.findByIsActive(true, pageable);
-        List<PermissionDTO> permissionDTOs = permissionPage.getContent().stream()
-                .map(this::convertToPermissionDTO)
-                .toList();
-        
-        return PageResult.of(permissionDTOs, permissionPage.getNumber(), permissionPage.getSize(), permissionPage.getTotalElements());
+        return getActivePermissions(pageable, CountMode.EXACT);
+    }
+
+    public PageResult<PermissionDTO> getActivePermissions(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<Permission> permissionPage = permissionRepository.findByIsActive(true, pageable);
+            List<PermissionDTO> permissionDTOs = convertToPermissionDTOs(permissionPage.getContent());
+
+            return PageResult.of(permissionDTOs, permissionPage.getNumber(), permissionPage.getSize(), permissionPage.getTotalElements());
+        }
+
+        Slice<Permission> permissionSlice = permissionRepository.findSliceByIsActive(true, pageable);
+        return toSliceResult(permissionSlice, countMode, "permissions.active", () -> permissionRepository.countByIsActive(true));
+    }
+
+    private PageResult<PermissionDTO> toSliceResult(Slice<Permission> permissionSlice, CountMode countMode, String countKey, LongSupplier counter) {
+        List<PermissionDTO> permissionDTOs = convertToPermissionDTOs(permissionSlice.getContent());
+        if (countMode == CountMode.ESTIMATE) {
+            return PageResult.estimated(permissionDTOs, permissionSlice, pageCountEstimator.estimate(countKey, counter));
+        }
+        return PageResult.of(permissionDTOs, permissionSlice);
+    }
+
+    /**
+     * 游標分頁查詢權限（依建立時間倒序）
+     * 以 (createdTime, id) seek 取代 OFFSET，且不執行 count
+     */
+    public CursorResult<PermissionDTO> scrollPermissions(String cursor, int size) {
+        return KeysetPager.fetch(permissionRepository, null, cursor, size, this::convertToPermissionDTOs);
+    }
+
+    /**
+     * 進階搜索權限（游標分頁，依建立時間倒序）
+     * 只為有提供的條件產生 SQL，文字條件為前綴比對
+     */
+    public CursorResult<PermissionDTO> advancedSearchPermissions(PermissionSearchCriteriaDTO criteria, String cursor, int size) {
+        Specification<Permission> specification = SearchSpecifications.allOf(
+                SearchSpecifications.startsWith("permissionCode", criteria.getPermissionCode()),
+                SearchSpecifications.equalTo("resourceName", criteria.getResourceName()),
+                SearchSpecifications.equalTo("actionType", criteria.getActionType()),
+                SearchSpecifications.equalTo("isActive", criteria.getIsActive()),
+                SearchSpecifications.createdBetween(criteria.getCreatedFrom(), criteria.getCreatedTo()));
+        return KeysetPager.fetch(permissionRepository, specification, cursor, size, this::convertToPermissionDTOs);
     }
 
     public PermissionDTO getPermissionById(String permissionId) {
@@ -51,24 +120,22 @@ public class PermissionService {
 
     public List<PermissionDTO> searchPermissions(String keyword) {
         Page<Permission> permissionPage = permissionRepository.findByKeyword(keyword, Pageable.unpaged());
-        return permissionPage.getContent().stream()
-                .map(this::convertToPermissionDTO)
-                .toList();
+        return convertToPermissionDTOs(permissionPage.getContent());
     }
 
     public List<PermissionDTO> getPermissionsByResource(String resourceName) {
         List<Permission> permissions = permissionRepository.findByResourceNameAndIsActive(resourceName, true);
-        return permissions.stream().map(this::convertToPermissionDTO).toList();
+        return convertToPermissionDTOs(permissions);
     }
 
     @Transactional
     public PermissionDTO createPermission(PermissionCreateDTO createDTO) {
         log.info("創建權限: {}", createDTO.getPermissionCode());
 
-        validateCreatePermission(createDTO);
-
+        // 權限代碼的唯一性由資料庫約束保證，立即 flush 以在此回報衝突
         Permission permission = createPermissionFromDTO(createDTO);
-        Permission savedPermission = permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.saveAndFlush(permission);
+        typeaheadIndex.putPermission(savedPermission);
 
         log.info("權限創建成功: {}", savedPermission.getPermissionCode());
         return convertToPermissionDTO(savedPermission);
@@ -79,12 +146,6 @@ public class PermissionService {
         log.info("更新權限: {}", permissionId);
 
         Permission existingPermission = findPermissionById(permissionId);
-        
-        // 檢查權限代碼唯一性（排除當前權限）
-        if (!existingPermission.getPermissionCode().equals(permissionDTO.getPermissionCode()) &&
-            permissionRepository.existsByPermissionCode(permissionDTO.getPermissionCode())) {
-            throw new BusinessException("權限代碼已存在", ErrorCodes.PERMISSION_NOT_FOUND);
-        }
 
         // 更新權限資訊
         existingPermission.setPermissionName(permissionDTO.getPermissionName());
@@ -95,7 +156,9 @@ public class PermissionService {
         existingPermission.setUpdatedTime(LocalDateTime.now());
         existingPermission.setUpdatedTs(System.currentTimeMillis());
 
-        Permission savedPermission = permissionRepository.save(existingPermission);
+        // 不預先查詢重複，由 uk_permissions_code 約束在 flush 時回報
+        Permission savedPermission = permissionRepository.saveAndFlush(existingPermission);
+        typeaheadIndex.putPermission(savedPermission);
         log.info("權限更新成功: {}", savedPermission.getPermissionCode());
         
         return convertToPermissionDTO(savedPermission);
@@ -109,6 +172,7 @@ public class PermissionService {
         permission.setUpdatedTime(LocalDateTime.now());
         permission.setUpdatedTs(System.currentTimeMillis());
         permissionRepository.save(permission);
+        revokeGranteeTokens(List.of(permissionId));
         log.info("權限啟用成功: {}", permission.getPermissionCode());
     }
 
@@ -120,6 +184,7 @@ public class PermissionService {
         permission.setUpdatedTime(LocalDateTime.now());
         permission.setUpdatedTs(System.currentTimeMillis());
         permissionRepository.save(permission);
+        revokeGranteeTokens(List.of(permissionId));
         log.info("權限停用成功: {}", permission.getPermissionCode());
     }
 
@@ -136,9 +201,94 @@ public class PermissionService {
         
         // 刪除權限
         permissionRepository.delete(permission);
+        typeaheadIndex.removePermission(permissionId);
         log.info("權限刪除成功: {}", permission.getPermissionCode());
     }
 
+    // ===== 批次操作 =====
+
+    @Transactional
+    public BulkOperationResultDTO enablePermissions(List<String> permissionIds) {
+        return updateActiveStatus(permissionIds, true);
+    }
+
+    @Transactional
+    public BulkOperationResultDTO disablePermissions(List<String> permissionIds) {
+        return updateActiveStatus(permissionIds, false);
+    }
+
+    /**
+     * 以狀態查詢與 UPDATE（每 1000 筆一段）變更狀態不同的權限，不載入實體
+     */
+    private BulkOperationResultDTO updateActiveStatus(List<String> permissionIds, boolean active) {
+        log.info("批次{}權限: {} 筆", active ? "啟用" : "停用", permissionIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+        LocalDateTime now = LocalDateTime.now();
+        long timestamp = System.currentTimeMillis();
+        String operatorId = JwtPrincipal.currentUserId();
+
+        Map<String, Boolean> statusById = new HashMap<>();
+        for (Object[] row : inListExecutor.query(permissionIds, permissionRepository::findActiveStatusByIds)) {
+            statusById.put((String) row[0], (Boolean) row[1]);
+        }
+        for (String permissionId : ChunkedInListExecutor.distinct(permissionIds)) {
+            Boolean current = statusById.get(permissionId);
+            if (current == null) {
+                result.getNotFound().add(permissionId);
+            } else if (current == active) {
+                result.getUnchanged().add(permissionId);
+            } else {
+                result.getChanged().add(permissionId);
+            }
+        }
+        inListExecutor.update(result.getChanged(),
+                chunk -> permissionRepository.updateActiveStatusByIds(chunk, active, now, timestamp, operatorId));
+        revokeGranteeTokens(result.getChanged());
+
+        log.info("批次{}權限完成: 變更 {}，未變更 {}，不存在 {}", active ? "啟用" : "停用",
+                result.getChanged().size(), result.getUnchanged().size(), result.getNotFound().size());
+        return result;
+    }
+
+    /**
+     * 批次刪除權限，仍被使用的權限列於 rejected 不刪除；其餘以批次 DELETE 刪除
+     */
+    @Transactional
+    public BulkOperationResultDTO deletePermissions(List<String> permissionIds) {
+        log.info("批次刪除權限: {} 筆", permissionIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : inListExecutor.query(permissionIds, permissionRepository::findActiveStatusByIds)) {
+            existing.add((String) row[0]);
+        }
+        Set<String> inUse = new HashSet<>(
+                inListExecutor.query(permissionIds, rolePermissionRepository::findPermissionIdsInUse));
+        for (String permissionId : ChunkedInListExecutor.distinct(permissionIds)) {
+            if (!existing.contains(permissionId)) {
+                result.getNotFound().add(permissionId);
+            } else if (inUse.contains(permissionId)) {
+                result.getRejected().add(permissionId);
+            } else {
+                result.getChanged().add(permissionId);
+            }
+        }
+        inListExecutor.update(result.getChanged(), permissionRepository::deleteAllByIdIn);
+
+        result.getChanged().forEach(typeaheadIndex::removePermission);
+        log.info("批次刪除權限完成: 刪除 {}，仍有角色使用 {}，不存在 {}", result.getChanged().size(),
+                result.getRejected().size(), result.getNotFound().size());
+        return result;
+    }
+
+    /**
+     * 權限啟用狀態變更後，撤銷擁有該權限之角色成員的 Token，使其重新登入時取得最新的權限列表
+     */
+    private void revokeGranteeTokens(List<String> permissionIds) {
+        tokenRevocationService.revokeAllForUsers(new HashSet<>(
+                inListExecutor.query(permissionIds, userRoleRepository::findMemberIdsByPermissionIds)));
+    }
+
     public List<String> getDistinctResourceNames() {
         return permissionRepository.findDistinctResourceNamesByIsActive(true);
     }
@@ -152,12 +302,6 @@ public class PermissionService {
                 .orElseThrow(() -> new BusinessException("權限不存在", ErrorCodes.PERMISSION_NOT_FOUND));
     }
 
-    private void validateCreatePermission(PermissionCreateDTO createDTO) {
-        if (permissionRepository.existsByPermissionCode(createDTO.getPermissionCode())) {
-            throw new BusinessException("權限代碼已存在", ErrorCodes.PERMISSION_NOT_FOUND);
-        }
-    }
-
     private Permission createPermissionFromDTO(PermissionCreateDTO createDTO) {
         Permission permission = new Permission();
         permission.setPermissionName(createDTO.getPermissionName());
@@ -176,7 +320,33 @@ public class PermissionService {
         return permission;
     }
 
+    /**
+     * 批次轉換權限列表
+     * 角色數量以 GROUP BY 查詢一次取得（每 1000 筆一次），不隨列表長度增加查詢次數
+     */
+    private List<PermissionDTO> convertToPermissionDTOs(List<Permission> permissions) {
+        if (permissions.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> permissionIds = permissions.stream().map(Permission::getId).toList();
+        Map<String, Long> roleCountByPermissionId = new HashMap<>();
+        for (Object[] row : inListExecutor.query(permissionIds, rolePermissionRepository::countActiveRolesByPermissionIds)) {
+            roleCountByPermissionId.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        return permissions.stream()
+                .map(permission -> convertToPermissionDTO(permission,
+                        roleCountByPermissionId.getOrDefault(permission.getId(), 0L)))
+                .toList();
+    }
+
     private PermissionDTO convertToPermissionDTO(Permission permission) {
+        return convertToPermissionDTO(permission,
+                rolePermissionRepository.countActiveRolesByPermissionId(permission.getId()));
+    }
+
+    private PermissionDTO convertToPermissionDTO(Permission permission, long roleCount) {
         PermissionDTO dto = new PermissionDTO();
         dto.setId(permission.getId());
         dto.setPermissionName(permission.getPermissionName());
@@ -187,9 +357,7 @@ public class PermissionService {
         dto.setCreatedTime(permission.getCreatedTime());
         dto.setUpdatedTime(permission.getUpdatedTime());
 
-        // 獲取使用此權限的角色數量
-        dto.setRoleCount(rolePermissionRepository.countActiveRolesByPermissionId(permission.getId()));
-
+        dto.setRoleCount(roleCount);
         return dto;
     }
 }
\ No newline at end of file
@@ -1,26 +1,53 @@
 package com.userms.service;
 
+import com.userms.common.CountMode;
 import com.userms.common.ErrorCodes;
+import com.userms.common.CursorResult;
 import com.userms.common.PageResult;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.RoleCreateDTO;
 import com.userms.dto.RoleDTO;
+import com.userms.dto.RoleMembersResultDTO;
+import com.userms.dto.RolePermissionsSyncResultDTO;
+import com.userms.dto.RoleSearchCriteriaDTO;
 import com.userms.entity.Permission;
 import com.userms.entity.Role;
 import com.userms.entity.RolePermission;
+import com.userms.entity.User;
+import com.userms.entity.UserRole;
 import com.userms.exception.BusinessException;
+import com.userms.repository.ChunkedInListExecutor;
+import com.userms.repository.KeysetPager;
 import com.userms.repository.PermissionRepository;
 import com.userms.repository.RolePermissionRepository;
 import com.userms.repository.RoleRepository;
+import com.userms.repository.SearchSpecifications;
+import com.userms.repository.UserRepository;
 import com.userms.repository.UserRoleRepository;
+import com.userms.security.JwtPrincipal;
+import com.userms.security.TokenRevocationService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
 @Slf4j
 @Service
@@ -31,23 +58,82 @@ public class RoleService {
     private final UserRoleRepository userRoleRepository;
     private final RolePermissionRepository rolePermissionRepository;
     private final PermissionRepository permissionRepository;
+    private final UserDTOCache userDTOCache;
+    private final PageCountEstimator pageCountEstimator;
+    private final TypeaheadIndex typeaheadIndex;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ChunkedInListExecutor inListExecutor;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * 批次寫入角色權限與角色成員關聯時的 JDBC batch 大小，只在寫入期間套用
+     */
+    @Value("${app.roles.write-batch-size:500}")
+    private int writeBatchSize;
 
     public PageResult<RoleDTO> getAllRoles(Pageable pageable) {
-        Page<Role> rolePage = roleRepository.findAll(pageable);
-        List<RoleDTO> roleDTOs = rolePage.getContent().stream()
-                .map(this::convertToRoleDTO)
-                .toList();
-        
-        return PageResult.of(roleDTOs, rolePage.getNumber(), rolePage.getSize(), rolePage.getTotalElements());
+        return getAllRoles(pageable, CountMode.EXACT);
+    }
+
+    /**
+     * 分頁查詢角色，依 countMode 決定總數的計算方式
+     */
+    public PageResult<RoleDTO> getAllRoles(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<Role> rolePage = roleRepository.findAll(pageable);
+            List<RoleDTO> roleDTOs = convertToRoleDTOs(rolePage.getContent());
+
+            return PageResult.of(roleDTOs, rolePage.getNumber(), rolePage.getSize(), rolePage.getTotalElements());
+        }
+
+        Slice<Role> roleSlice = roleRepository.findSliceBy(pageable);
+        return toSliceResult(roleSlice, countMode, "roles", roleRepository::count);
     }
 
     public PageResult<RoleDTO> getActiveRoles(Pageable pageable) {
-        Page<Role> rolePage = roleRepository.findByIsActive(true, pageable);
-        List<RoleDTO> roleDTOs = rolePage.getContent().stream()
-                .map(this::convertToRoleDTO)
-                .toList();
-        
-        return PageResult.of(roleDTOs, rolePage.getNumber(), rolePage.getSize(), rolePage.getTotalElements());
+        return getActiveRoles(pageable, CountMode.EXACT);
+    }
+
+    public PageResult<RoleDTO> getActiveRoles(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<Role> rolePage = roleRepository.findByIsActive(true, pageable);
+            List<RoleDTO> roleDTOs = convertToRoleDTOs(rolePage.getContent());
+
+            return PageResult.of(roleDTOs, rolePage.getNumber(), rolePage.getSize(), rolePage.getTotalElements());
+        }
+
+        Slice<Role> roleSlice = roleRepository.findSliceByIsActive(true, pageable);
+        return toSliceResult(roleSlice, countMode, "roles.active", () -> roleRepository.countByIsActive(true));
+    }
+
+    private PageResult<RoleDTO> toSliceResult(Slice<Role> roleSlice, CountMode countMode, String countKey, LongSupplier counter) {
+        List<RoleDTO> roleDTOs = convertToRoleDTOs(roleSlice.getContent());
+        if (countMode == CountMode.ESTIMATE) {
+            return PageResult.estimated(roleDTOs, roleSlice, pageCountEstimator.estimate(countKey, counter));
+        }
+        return PageResult.of(roleDTOs, roleSlice);
+    }
+
+    /**
+     * 游標分頁查詢角色（依建立時間倒序）
+     * 以 (createdTime, id) seek 取代 OFFSET，且不執行 count
+     */
+    public CursorResult<RoleDTO> scrollRoles(String cursor, int size) {
+        return KeysetPager.fetch(roleRepository, null, cursor, size, this::convertToRoleDTOs);
+    }
+
+    /**
+     * 進階搜索角色（游標分頁，依建立時間倒序）
+     * 只為有提供的條件產生 SQL，文字條件為前綴比對
+     */
+    public CursorResult<RoleDTO> advancedSearchRoles(RoleSearchCriteriaDTO criteria, String cursor, int size) {
+        Specification<Role> specification = SearchSpecifications.allOf(
+                SearchSpecifications.startsWith("roleCode", criteria.getRoleCode()),
+                SearchSpecifications.startsWith("roleName", criteria.getRoleName()),
+                SearchSpecifications.equalTo("isActive", criteria.getIsActive()),
+                SearchSpecifications.createdBetween(criteria.getCreatedFrom(), criteria.getCreatedTo()));
+        return KeysetPager.fetch(roleRepository, specification, cursor, size, this::convertToRoleDTOs);
     }
 
     public RoleDTO getRoleById(String roleId) {
@@ -63,19 +149,17 @@ public class RoleService {
 
     public List<RoleDTO> searchRoles(String keyword) {
         Page<Role> rolePage = roleRepository.findByKeyword(keyword, Pageable.unpaged());
-        return rolePage.getContent().stream()
-                .map(this::convertToRoleDTO)
-                .toList();
+        return convertToRoleDTOs(rolePage.getContent());
     }
 
     @Transactional
     public RoleDTO createRole(RoleCreateDTO createDTO) {
         log.info("創建角色: {}", createDTO.getRoleCode());
 
-        validateCreateRole(createDTO);
-
+        // 角色名稱與代碼的唯一性由資料庫約束保證，立即 flush 以在此回報衝突
         Role role = createRoleFromDTO(createDTO);
-        Role savedRole = roleRepository.save(role);
+        Role savedRole = roleRepository.saveAndFlush(role);
+        typeaheadIndex.putRole(savedRole);
 
         log.info("角色創建成功: {}", savedRole.getRoleCode());
         return convertToRoleDTO(savedRole);
@@ -86,17 +170,8 @@ public class RoleService {
         log.info("更新角色: {}", roleId);
 
         Role existingRole = findRoleById(roleId);
-        
-        // 檢查角色名稱和代碼唯一性（排除當前角色）
-        if (!existingRole.getRoleName().equals(roleDTO.getRoleName()) &&
-            roleRepository.existsByRoleName(roleDTO.getRoleName())) {
-            throw new BusinessException("角色名稱已存在", ErrorCodes.ROLE_NOT_FOUND);
-        }
-
-        if (!existingRole.getRoleCode().equals(roleDTO.getRoleCode()) &&
-            roleRepository.existsByRoleCode(roleDTO.getRoleCode())) {
-            throw new BusinessException("角色代碼已存在", ErrorCodes.ROLE_NOT_FOUND);
-        }
+        boolean claimsChanged = !Objects.equals(existingRole.getRoleCode(), roleDTO.getRoleCode())
+                || !Objects.equals(existingRole.getIsActive(), roleDTO.getIsActive());
 
         // 更新角色資訊
         existingRole.setRoleName(roleDTO.getRoleName());
@@ -106,7 +181,15 @@ public class RoleService {
         existingRole.setUpdatedTime(LocalDateTime.now());
         existingRole.setUpdatedTs(System.currentTimeMillis());
 
-        Role savedRole = roleRepository.save(existingRole);
+        // 不預先查詢重複，由 uk_roles_name / uk_roles_code 約束在 flush 時回報
+        Role savedRole = roleRepository.saveAndFlush(existingRole);
+        // 角色代碼或啟用狀態變更會影響成員的角色列表與 Token 中的角色、權限
+        List<String> memberIds = userRoleRepository.findUserIdsByRoleId(roleId);
+        userDTOCache.evictAll(memberIds);
+        if (claimsChanged) {
+            tokenRevocationService.revokeAllForUsers(memberIds);
+        }
+        typeaheadIndex.putRole(savedRole);
         log.info("角色更新成功: {}", savedRole.getRoleCode());
         
         return convertToRoleDTO(savedRole);
@@ -120,6 +203,9 @@ public class RoleService {
         role.setUpdatedTime(LocalDateTime.now());
         role.setUpdatedTs(System.currentTimeMillis());
         roleRepository.save(role);
+        List<String> memberIds = userRoleRepository.findUserIdsByRoleId(roleId);
+        userDTOCache.evictAll(memberIds);
+        tokenRevocationService.revokeAllForUsers(memberIds);
         log.info("角色啟用成功: {}", role.getRoleCode());
     }
 
@@ -131,6 +217,9 @@ public class RoleService {
         role.setUpdatedTime(LocalDateTime.now());
         role.setUpdatedTs(System.currentTimeMillis());
         roleRepository.save(role);
+        List<String> memberIds = userRoleRepository.findUserIdsByRoleId(roleId);
+        userDTOCache.evictAll(memberIds);
+        tokenRevocationService.revokeAllForUsers(memberIds);
         log.info("角色停用成功: {}", role.getRoleCode());
     }
 
@@ -150,6 +239,7 @@ public class RoleService {
         
         // 刪除角色
         roleRepository.delete(role);
+        typeaheadIndex.removeRole(roleId);
         log.info("角色刪除成功: {}", role.getRoleCode());
     }
 
@@ -168,6 +258,7 @@ public class RoleService {
 
         RolePermission rolePermission = new RolePermission(role, permission);
         rolePermissionRepository.save(rolePermission);
+        tokenRevocationService.revokeAllForUsers(userRoleRepository.findUserIdsByRoleId(roleId));
         log.info("權限分配成功: 角色 {} 獲得權限 {}", role.getRoleCode(), permission.getPermissionName());
     }
 
@@ -187,9 +278,80 @@ public class RoleService {
         // 直接刪除角色權限關聯
         RolePermission.RolePermissionId rolePermissionId = new RolePermission.RolePermissionId(roleId, permission.getId());
         rolePermissionRepository.deleteById(rolePermissionId);
+        tokenRevocationService.revokeAllForUsers(userRoleRepository.findUserIdsByRoleId(roleId));
         log.info("權限撤銷成功: 角色 {} 失去權限 {}", role.getRoleCode(), permission.getPermissionName());
     }
 
+    /**
+     * 以完整的權限代碼集合同步角色權限
+     * 在記憶體中與現有關聯計算差異，再以一次批次 DELETE 與一次 JDBC batch INSERT 套用，
+     * 資料庫往返次數與權限數量無關。任一權限代碼不存在時整體不變更。
+     */
+    @Transactional
+    public RolePermissionsSyncResultDTO syncPermissions(String roleId, List<String> permissionCodes) {
+        Role role = findRoleById(roleId);
+        Set<String> desiredCodes = new LinkedHashSet<>(permissionCodes);
+        desiredCodes.remove(null);
+        log.info("同步角色 {} 的權限集合: {} 項", role.getRoleCode(), desiredCodes.size());
+
+        // 現有關聯（含停用權限）：permissionCode -> permissionId
+        Map<String, String> assignedIdsByCode = new HashMap<>();
+        for (Object[] row : rolePermissionRepository.findAssignedPermissionRowsByRoleId(roleId)) {
+            assignedIdsByCode.put((String) row[1], (String) row[0]);
+        }
+
+        List<String> addedCodes = desiredCodes.stream()
+                .filter(code -> !assignedIdsByCode.containsKey(code))
+                .toList();
+        List<String> removedCodes = assignedIdsByCode.keySet().stream()
+                .filter(code -> !desiredCodes.contains(code))
+                .sorted()
+                .toList();
+        Map<String, String> addedIdsByCode = findPermissionIdsByCodes(addedCodes);
+
+        List<String> removedIds = removedCodes.stream().map(assignedIdsByCode::get).toList();
+        inListExecutor.update(removedIds,
+                chunk -> rolePermissionRepository.deleteByRoleIdAndPermissionIds(roleId, chunk));
+        if (!addedCodes.isEmpty()) {
+            // batch 大小只在寫入新增關聯期間調整，結束後還原呼叫端 Session 原本的設定
+            Session session = entityManager.unwrap(Session.class);
+            Integer previousBatchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(writeBatchSize);
+            try {
+                for (String code : addedCodes) {
+                    entityManager.persist(new RolePermission(role,
+                            entityManager.getReference(Permission.class, addedIdsByCode.get(code))));
+                }
+                entityManager.flush();
+            } finally {
+                session.setJdbcBatchSize(previousBatchSize);
+            }
+        }
+
+        if (!addedCodes.isEmpty() || !removedCodes.isEmpty()) {
+            tokenRevocationService.revokeAllForUsers(userRoleRepository.findUserIdsByRoleId(roleId));
+        }
+
+        log.info("角色 {} 權限同步完成: 新增 {}，移除 {}", role.getRoleCode(), addedCodes.size(), removedCodes.size());
+        return new RolePermissionsSyncResultDTO(roleId, addedCodes, removedCodes,
+                desiredCodes.size() - addedCodes.size());
+    }
+
+    /**
+     * 以 IN 查詢取得權限 ID，任一代碼不存在時拋出例外
+     */
+    private Map<String, String> findPermissionIdsByCodes(List<String> permissionCodes) {
+        Map<String, String> idsByCode = new HashMap<>();
+        for (Object[] row : inListExecutor.query(permissionCodes, permissionRepository::findIdsByPermissionCodes)) {
+            idsByCode.put((String) row[1], (String) row[0]);
+        }
+        if (idsByCode.size() < permissionCodes.size()) {
+            List<String> missing = permissionCodes.stream().filter(code -> !idsByCode.containsKey(code)).toList();
+            throw new BusinessException("權限不存在: " + String.join(", ", missing), ErrorCodes.PERMISSION_NOT_FOUND);
+        }
+        return idsByCode;
+    }
+
     public List<String> getRolePermissions(String roleId) {
         findRoleById(roleId); // 驗證角色存在
         return rolePermissionRepository.findPermissionCodesByRoleId(roleId);
@@ -200,19 +362,189 @@ public class RoleService {
         return userRoleRepository.countActiveUsersByRoleId(roleId);
     }
 
-    private Role findRoleById(String roleId) {
-        return roleRepository.findById(roleId)
-                .orElseThrow(() -> new BusinessException("角色不存在", ErrorCodes.ROLE_NOT_FOUND));
+    // ===== 批次操作 =====
+
+    @Transactional
+    public BulkOperationResultDTO enableRoles(List<String> roleIds) {
+        return updateActiveStatus(roleIds, true);
+    }
+
+    @Transactional
+    public BulkOperationResultDTO disableRoles(List<String> roleIds) {
+        return updateActiveStatus(roleIds, false);
+    }
+
+    /**
+     * 以狀態查詢與 UPDATE（每 1000 筆一段）變更狀態不同的角色，不載入實體
+     */
+    private BulkOperationResultDTO updateActiveStatus(List<String> roleIds, boolean active) {
+        log.info("批次{}角色: {} 筆", active ? "啟用" : "停用", roleIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+        LocalDateTime now = LocalDateTime.now();
+        long timestamp = System.currentTimeMillis();
+        String operatorId = JwtPrincipal.currentUserId();
+
+        Map<String, Boolean> statusById = new HashMap<>();
+        for (Object[] row : inListExecutor.query(roleIds, roleRepository::findActiveStatusByIds)) {
+            statusById.put((String) row[0], (Boolean) row[1]);
+        }
+        for (String roleId : ChunkedInListExecutor.distinct(roleIds)) {
+            Boolean current = statusById.get(roleId);
+            if (current == null) {
+                result.getNotFound().add(roleId);
+            } else if (current == active) {
+                result.getUnchanged().add(roleId);
+            } else {
+                result.getChanged().add(roleId);
+            }
+        }
+        inListExecutor.update(result.getChanged(),
+                chunk -> roleRepository.updateActiveStatusByIds(chunk, active, now, timestamp, operatorId));
+        Set<String> memberIds = new HashSet<>(
+                inListExecutor.query(result.getChanged(), userRoleRepository::findMemberIdsByRoleIds));
+        userDTOCache.evictAll(memberIds);
+        tokenRevocationService.revokeAllForUsers(memberIds);
+
+        log.info("批次{}角色完成: 變更 {}，未變更 {}，不存在 {}", active ? "啟用" : "停用",
+                result.getChanged().size(), result.getUnchanged().size(), result.getNotFound().size());
+        return result;
     }
 
-    private void validateCreateRole(RoleCreateDTO createDTO) {
-        if (roleRepository.existsByRoleName(createDTO.getRoleName())) {
-            throw new BusinessException("角色名稱已存在", ErrorCodes.ROLE_NOT_FOUND);
+    /**
+     * 批次刪除角色，仍被使用的角色列於 rejected 不刪除；其餘以批次 DELETE 刪除關聯與角色
+     */
+    @Transactional
+    public BulkOperationResultDTO deleteRoles(List<String> roleIds) {
+        log.info("批次刪除角色: {} 筆", roleIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : inListExecutor.query(roleIds, roleRepository::findActiveStatusByIds)) {
+            existing.add((String) row[0]);
+        }
+        Set<String> inUse = new HashSet<>(inListExecutor.query(roleIds, userRoleRepository::findRoleIdsInUse));
+        for (String roleId : ChunkedInListExecutor.distinct(roleIds)) {
+            if (!existing.contains(roleId)) {
+                result.getNotFound().add(roleId);
+            } else if (inUse.contains(roleId)) {
+                result.getRejected().add(roleId);
+            } else {
+                result.getChanged().add(roleId);
+            }
+        }
+        inListExecutor.update(result.getChanged(), rolePermissionRepository::deleteAllByRoleIds);
+        inListExecutor.update(result.getChanged(), roleRepository::deleteAllByIdIn);
+
+        result.getChanged().forEach(typeaheadIndex::removeRole);
+        log.info("批次刪除角色完成: 刪除 {}，仍有用戶使用 {}，不存在 {}", result.getChanged().size(),
+                result.getRejected().size(), result.getNotFound().size());
+        return result;
+    }
+
+    // ===== 角色成員批次變更 =====
+
+    /**
+     * 批次為多位用戶新增角色
+     * 以兩次 IN 查詢（數量超過門檻時改用暫存表）找出不存在與已擁有角色的用戶，其餘以 JDBC batch 寫入，
+     * 不逐筆查詢或 merge，數萬位用戶只需數十次資料庫往返。
+     */
+    @Transactional
+    public RoleMembersResultDTO addMembers(String roleCode, List<String> userIds) {
+        Role role = findRoleByCode(roleCode);
+        log.info("批次為 {} 位用戶分配角色 {}", userIds.size(), roleCode);
+
+        String roleId = role.getId();
+        RoleMembersResultDTO result = newMembersResult(roleCode);
+        Set<String> existingIds = new HashSet<>(inListExecutor.query(userIds,
+                userRepository::findExistingIds, userRepository::findExistingIdsInTempIds));
+        Set<String> memberIds = new HashSet<>(inListExecutor.query(userIds,
+                chunk -> userRoleRepository.findMemberIds(roleId, chunk),
+                () -> userRoleRepository.findMemberIdsInTempIds(roleId)));
+
+        // batch 大小只在寫入成員關聯期間調整，結束後還原呼叫端 Session 原本的設定
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(writeBatchSize);
+        try {
+            for (String userId : ChunkedInListExecutor.distinct(userIds)) {
+                if (!existingIds.contains(userId)) {
+                    result.getNotFound().add(userId);
+                } else if (memberIds.contains(userId)) {
+                    result.getUnchanged().add(userId);
+                } else {
+                    // 以參照建立關聯，不載入用戶與角色
+                    entityManager.persist(new UserRole(entityManager.getReference(User.class, userId),
+                            entityManager.getReference(Role.class, roleId)));
+                    result.getChanged().add(userId);
+                    if (result.getChanged().size() % writeBatchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
         }
 
-        if (roleRepository.existsByRoleCode(createDTO.getRoleCode())) {
-            throw new BusinessException("角色代碼已存在", ErrorCodes.ROLE_NOT_FOUND);
+        userDTOCache.evictAll(result.getChanged());
+        tokenRevocationService.revokeAllForUsers(result.getChanged());
+        log.info("角色 {} 批次分配完成: 新增 {}，已擁有 {}，用戶不存在 {}", roleCode,
+                result.getChanged().size(), result.getUnchanged().size(), result.getNotFound().size());
+        return result;
+    }
+
+    /**
+     * 批次移除多位用戶的角色，以批次 DELETE 刪除實際擁有角色者
+     */
+    @Transactional
+    public RoleMembersResultDTO removeMembers(String roleCode, List<String> userIds) {
+        Role role = findRoleByCode(roleCode);
+        log.info("批次撤銷 {} 位用戶的角色 {}", userIds.size(), roleCode);
+
+        String roleId = role.getId();
+        RoleMembersResultDTO result = newMembersResult(roleCode);
+        Set<String> memberIds = new HashSet<>(inListExecutor.query(userIds,
+                chunk -> userRoleRepository.findMemberIds(roleId, chunk),
+                () -> userRoleRepository.findMemberIdsInTempIds(roleId)));
+        List<String> distinctIds = ChunkedInListExecutor.distinct(userIds);
+        Set<String> existingIds = memberIds.size() == distinctIds.size()
+                ? memberIds
+                : new HashSet<>(inListExecutor.query(distinctIds,
+                        userRepository::findExistingIds, userRepository::findExistingIdsInTempIds));
+        for (String userId : distinctIds) {
+            if (memberIds.contains(userId)) {
+                result.getChanged().add(userId);
+            } else if (existingIds.contains(userId)) {
+                result.getUnchanged().add(userId);
+            } else {
+                result.getNotFound().add(userId);
+            }
         }
+        inListExecutor.update(result.getChanged(),
+                chunk -> userRoleRepository.deleteByUserIdsAndRoleId(chunk, roleId),
+                () -> userRoleRepository.deleteByUserIdsInTempIdsAndRoleId(roleId));
+
+        userDTOCache.evictAll(result.getChanged());
+        tokenRevocationService.revokeAllForUsers(result.getChanged());
+        log.info("角色 {} 批次撤銷完成: 移除 {}，未擁有 {}，用戶不存在 {}", roleCode,
+                result.getChanged().size(), result.getUnchanged().size(), result.getNotFound().size());
+        return result;
+    }
+
+    private static RoleMembersResultDTO newMembersResult(String roleCode) {
+        return new RoleMembersResultDTO(roleCode, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    private Role findRoleByCode(String roleCode) {
+        return roleRepository.findByRoleCode(roleCode)
+                .orElseThrow(() -> new BusinessException("角色不存在", ErrorCodes.ROLE_NOT_FOUND));
+    }
+
+    private Role findRoleById(String roleId) {
+        return roleRepository.findById(roleId)
+                .orElseThrow(() -> new BusinessException("角色不存在", ErrorCodes.ROLE_NOT_FOUND));
     }
 
     private Role createRoleFromDTO(RoleCreateDTO createDTO) {
@@ -232,7 +564,40 @@ public class RoleService {
         return role;
     }
 
+    /**
+     * 批次轉換角色列表
+     * 權限代碼與用戶數量各以一次 IN 查詢取得（每 1000 筆一次），不隨列表長度增加查詢次數
+     */
+    private List<RoleDTO> convertToRoleDTOs(List<Role> roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> roleIds = roles.stream().map(Role::getId).toList();
+        Map<String, List<String>> permissionCodesByRoleId = new HashMap<>();
+        Map<String, Long> userCountByRoleId = new HashMap<>();
+
+        for (Object[] row : inListExecutor.query(roleIds, rolePermissionRepository::findPermissionCodesByRoleIds)) {
+            permissionCodesByRoleId.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Object[] row : inListExecutor.query(roleIds, userRoleRepository::countActiveUsersByRoleIds)) {
+            userCountByRoleId.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        return roles.stream()
+                .map(role -> convertToRoleDTO(role,
+                        permissionCodesByRoleId.getOrDefault(role.getId(), List.of()),
+                        userCountByRoleId.getOrDefault(role.getId(), 0L)))
+                .toList();
+    }
+
     private RoleDTO convertToRoleDTO(Role role) {
+        return convertToRoleDTO(role,
+                rolePermissionRepository.findPermissionCodesByRoleId(role.getId()),
+                userRoleRepository.countActiveUsersByRoleId(role.getId()));
+    }
+
+    private RoleDTO convertToRoleDTO(Role role, List<String> permissionCodes, long userCount) {
         RoleDTO dto = new RoleDTO();
         dto.setId(role.getId());
         dto.setRoleName(role.getRoleName());
@@ -242,12 +607,8 @@ public class RoleService {
         dto.setCreatedTime(role.getCreatedTime());
         dto.setUpdatedTime(role.getUpdatedTime());
 
-        // 獲取權限列表
-        dto.setPermissions(rolePermissionRepository.findPermissionCodesByRoleId(role.getId()));
-        
-        // 獲取用戶數量
-        dto.setUserCount(userRoleRepository.countActiveUsersByRoleId(role.getId()));
-
+        dto.setPermissions(permissionCodes);
+        dto.setUserCount(userCount);
         return dto;
     }
 }
\ No newline at end of file
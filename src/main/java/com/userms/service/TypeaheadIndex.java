@@ -0,0 +1,278 @@
+package com.userms.service;
+
+import com.userms.dto.TypeaheadSuggestionDTO;
+import com.userms.entity.Permission;
+import com.userms.entity.Role;
+import com.userms.entity.User;
+import com.userms.repository.PermissionRepository;
+import com.userms.repository.RoleRepository;
+import com.userms.repository.UserRepository;
+import com.userms.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * 輸入提示（typeahead）前綴索引
+ * <p>
+ * 對 username、email、roleCode、permissionCode 各維護一份依小寫文字排序的跳躍串列，
+ * 前綴查詢為一次 O(log n) 定位加上最多 K 筆的順序讀取，不查詢資料庫也不轉換 DTO。
+ * 讀取不加鎖；寫入由服務層在交易提交後逐筆更新。
+ * <p>
+ * 啟動時載入，之後定期從資料庫重建以同步其他節點的變更；重建期間的寫入會在切換時重新套用。
+ */
+@Slf4j
+@Component
+public class TypeaheadIndex {
+
+    /**
+     * 鍵的分隔字元，排序低於任何可見字元，使同一前綴的鍵連續排列
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    public enum Field {
+        USERNAME, EMAIL, ROLE_CODE, PERMISSION_CODE
+    }
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final int batchSize;
+
+    private volatile Map<Field, FieldIndex> indexes = newIndexes();
+    /** 重建期間的寫入（guarded by this） */
+    private List<Consumer<Map<Field, FieldIndex>>> pendingWrites;
+
+    public TypeaheadIndex(UserRepository userRepository,
+                          RoleRepository roleRepository,
+                          PermissionRepository permissionRepository,
+                          @Value("${app.typeahead.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 前綴查詢，依文字排序回傳最多 limit 筆
+     *
+     * @param fields 查詢的欄位，多個欄位時合併後再取前 limit 筆
+     */
+    public List<TypeaheadSuggestionDTO> suggest(String prefix, Collection<Field> fields, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Field, FieldIndex> current = indexes;
+        List<TypeaheadSuggestionDTO> suggestions = new ArrayList<>();
+        for (Field field : fields) {
+            current.get(field).collect(normalized, limit, suggestions);
+        }
+        if (fields.size() > 1) {
+            suggestions.sort(Comparator.comparing((TypeaheadSuggestionDTO s) -> normalize(s.getValue()))
+                    .thenComparing(TypeaheadSuggestionDTO::getType));
+            if (suggestions.size() > limit) {
+                return new ArrayList<>(suggestions.subList(0, limit));
+            }
+        }
+        return suggestions;
+    }
+
+    // ===== 增量更新（交易提交後生效） =====
+
+    public void putUser(User user) {
+        String userId = user.getId();
+        String username = user.getUsername();
+        String email = user.getEmail();
+        write(index -> {
+            index.get(Field.USERNAME).put(userId, username);
+            index.get(Field.EMAIL).put(userId, email);
+        });
+    }
+
+    public void removeUser(String userId) {
+        write(index -> {
+            index.get(Field.USERNAME).remove(userId);
+            index.get(Field.EMAIL).remove(userId);
+        });
+    }
+
+    public void putRole(Role role) {
+        String roleId = role.getId();
+        String roleCode = role.getRoleCode();
+        write(index -> index.get(Field.ROLE_CODE).put(roleId, roleCode));
+    }
+
+    public void removeRole(String roleId) {
+        write(index -> index.get(Field.ROLE_CODE).remove(roleId));
+    }
+
+    public void putPermission(Permission permission) {
+        String permissionId = permission.getId();
+        String permissionCode = permission.getPermissionCode();
+        write(index -> index.get(Field.PERMISSION_CODE).put(permissionId, permissionCode));
+    }
+
+    public void removePermission(String permissionId) {
+        write(index -> index.get(Field.PERMISSION_CODE).remove(permissionId));
+    }
+
+    // ===== 載入與重建 =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("輸入提示索引載入失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.typeahead.rebuild-interval:PT30M}",
+            initialDelayString = "${app.typeahead.rebuild-interval:PT30M}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("輸入提示索引重建失敗，沿用現有索引: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 從資料庫載入並建立新索引，完成後整體替換
+     */
+    public void rebuild() {
+        synchronized (this) {
+            if (pendingWrites != null) {
+                return;
+            }
+            pendingWrites = new ArrayList<>();
+        }
+
+        Map<Field, FieldIndex> fresh = newIndexes();
+        try {
+            Pageable batch = PageRequest.ofSize(batchSize);
+            List<Object[]> rows = userRepository.findSearchRowsFirst(batch);
+            while (!rows.isEmpty()) {
+                String lastId = null;
+                for (Object[] row : rows) {
+                    lastId = (String) row[0];
+                    fresh.get(Field.USERNAME).put(lastId, (String) row[1]);
+                    fresh.get(Field.EMAIL).put(lastId, (String) row[2]);
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = userRepository.findSearchRowsAfter(lastId, batch);
+            }
+            for (Object[] row : roleRepository.findTypeaheadRows()) {
+                fresh.get(Field.ROLE_CODE).put((String) row[0], (String) row[1]);
+            }
+            for (Object[] row : permissionRepository.findTypeaheadRows()) {
+                fresh.get(Field.PERMISSION_CODE).put((String) row[0], (String) row[1]);
+            }
+
+            synchronized (this) {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                indexes = fresh;
+            }
+            log.info("輸入提示索引重建完成: users={}, roles={}, permissions={}",
+                    fresh.get(Field.USERNAME).size(), fresh.get(Field.ROLE_CODE).size(),
+                    fresh.get(Field.PERMISSION_CODE).size());
+        } finally {
+            synchronized (this) {
+                pendingWrites = null;
+            }
+        }
+    }
+
+    private void write(Consumer<Map<Field, FieldIndex>> write) {
+        TransactionUtils.afterCommit(() -> {
+            synchronized (this) {
+                write.accept(indexes);
+                if (pendingWrites != null) {
+                    pendingWrites.add(write);
+                }
+            }
+        });
+    }
+
+    private static Map<Field, FieldIndex> newIndexes() {
+        Map<Field, FieldIndex> map = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            map.put(field, new FieldIndex(field));
+        }
+        return map;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 單一欄位的排序索引
+     * 鍵為「小寫文字 + 分隔字元 + ID」，同名時以 ID 區分；另以 ID 對應目前的鍵，更新時移除舊鍵
+     */
+    private static final class FieldIndex {
+
+        private final Field field;
+        private final ConcurrentSkipListMap<String, TypeaheadSuggestionDTO> entries = new ConcurrentSkipListMap<>();
+        private final Map<String, String> keysById = new ConcurrentHashMap<>();
+
+        private FieldIndex(Field field) {
+            this.field = field;
+        }
+
+        void put(String id, String value) {
+            if (value == null || value.isBlank()) {
+                remove(id);
+                return;
+            }
+            String key = normalize(value) + KEY_SEPARATOR + id;
+            String previous = keysById.put(id, key);
+            if (previous != null && !previous.equals(key)) {
+                entries.remove(previous);
+            }
+            entries.put(key, new TypeaheadSuggestionDTO(field.name(), id, value));
+        }
+
+        void remove(String id) {
+            String previous = keysById.remove(id);
+            if (previous != null) {
+                entries.remove(previous);
+            }
+        }
+
+        void collect(String prefix, int limit, List<TypeaheadSuggestionDTO> target) {
+            int count = 0;
+            for (TypeaheadSuggestionDTO suggestion
+                    : entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (count++ == limit) {
+                    break;
+                }
+                target.add(suggestion);
+            }
+        }
+
+        int size() {
+            return keysById.size();
+        }
+    }
+}
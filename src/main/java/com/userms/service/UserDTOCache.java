@@ -0,0 +1,107 @@
+package com.userms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.userms.dto.UserDTO;
+import com.userms.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 使用者 DTO 快取（含角色代碼）
+ * <p>
+ * 以使用者 ID 為鍵，另以使用者名稱對應 ID 的索引支援 {@code /auth/me} 與 Token 刷新。
+ * 使用者或其角色變更時由服務層呼叫 {@link #evict(String)} 精確失效；
+ * 失效在變更當下與交易提交後各執行一次，避免並行讀取在提交前把舊資料放回快取。
+ * 命中率透過 Actuator metrics 的 {@code cache.*{cache=users.dto}} 暴露。
+ * <p>
+ * 快取中的 DTO 為共用實例，呼叫端不可修改。
+ */
+@Component
+public class UserDTOCache {
+
+    private static final String CACHE_NAME = "users.dto";
+
+    private final Cache<String, UserDTO> usersById;
+    private final Cache<String, String> idsByUsername;
+
+    public UserDTOCache(MeterRegistry meterRegistry,
+                        @Value("${app.cache.users.maximum-size:10000}") long maximumSize,
+                        @Value("${app.cache.users.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, CACHE_NAME);
+    }
+
+    /**
+     * 依 ID 取得使用者，未命中時以 loader 載入
+     * loader 拋出的例外（例如使用者不存在）不會被快取
+     */
+    public UserDTO getById(String userId, Function<String, UserDTO> loader) {
+        UserDTO user = usersById.get(userId, loader);
+        if (user != null) {
+            idsByUsername.put(user.getUsername(), user.getId());
+        }
+        return user;
+    }
+
+    /**
+     * 依使用者名稱取得使用者，未命中時以 loader 載入
+     */
+    public UserDTO getByUsername(String username, Function<String, UserDTO> loader) {
+        String userId = idsByUsername.getIfPresent(username);
+        if (userId != null) {
+            UserDTO cached = usersById.getIfPresent(userId);
+            if (cached != null && username.equals(cached.getUsername())) {
+                return cached;
+            }
+        }
+
+        UserDTO user = loader.apply(username);
+        usersById.put(user.getId(), user);
+        idsByUsername.put(username, user.getId());
+        return user;
+    }
+
+    /**
+     * 使指定使用者的快取失效
+     */
+    public void evict(String userId) {
+        evictNow(userId);
+        TransactionUtils.afterCommit(() -> evictNow(userId));
+    }
+
+    /**
+     * 使多個使用者的快取失效（例如角色啟用狀態變更時的所有成員）
+     */
+    public void evictAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(userIds);
+        ids.forEach(this::evictNow);
+        TransactionUtils.afterCommit(() -> ids.forEach(this::evictNow));
+    }
+
+    private void evictNow(String userId) {
+        UserDTO cached = usersById.getIfPresent(userId);
+        usersById.invalidate(userId);
+        if (cached != null) {
+            idsByUsername.invalidate(cached.getUsername());
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.userms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.userms.common.DataFormat;
+import com.userms.repository.ChunkedInListExecutor;
+import com.userms.repository.UserRepository;
+import com.userms.repository.UserRoleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 使用者全量匯出（NDJSON / CSV）
+ * <p>
+ * 以唯讀交易開啟 JPA Stream（大 fetch size、只讀純量欄位）逐筆讀取，
+ * 每累積一個 chunk 以一次 IN 查詢補上角色代碼後寫出，記憶體用量只與 chunk 大小相關，與總筆數無關。
+ * <p>
+ * 平行模式依 id 前綴將資料切成多個範圍，各自在獨立的交易（連線）中讀取；
+ * 各範圍的 chunk 以整塊方式寫入輸出，因此輸出順序不保證依 id 排序。
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    private static final String CSV_HEADER = "id,username,email,firstName,lastName,isActive,createdTime,updatedTime,roles\n";
+
+    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final ObjectMapper objectMapper;
+    private final ChunkedInListExecutor inListExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int maxParallelism;
+
+    public UserExportService(UserRepository userRepository,
+                             UserRoleRepository userRoleRepository,
+                             ObjectMapper objectMapper,
+                             ChunkedInListExecutor inListExecutor,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.export.users.chunk-size:1000}") int chunkSize,
+                             @Value("${app.export.users.max-parallelism:4}") int maxParallelism) {
+        this.userRepository = userRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.objectMapper = objectMapper;
+        this.inListExecutor = inListExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // 角色代碼以 IN 查詢補上，chunk 不可超過 Oracle IN 清單上限
+        this.chunkSize = Math.max(1, Math.min(chunkSize, ChunkedInListExecutor.MAX_CHUNK_SIZE));
+        this.maxParallelism = Math.max(1, maxParallelism);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.maxParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "user-export-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 匯出全部使用者到輸出串流
+     *
+     * @param parallelism 平行讀取的範圍數，1 為單一串流；上限為 {@code app.export.users.max-parallelism}
+     */
+    public void export(DataFormat format, int parallelism, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ChunkWriter writer = new ChunkWriter(outputStream);
+        int partitions = Math.max(1, Math.min(parallelism, maxParallelism));
+        long exported;
+        try {
+            if (format == DataFormat.CSV) {
+                writer.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+            }
+            exported = partitions == 1
+                    ? exportRange(null, null, format, writer)
+                    : exportParallel(partitions, format, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
+        log.info("使用者匯出完成: format={}, partitions={}, rows={}, 耗時 {}ms",
+                format, partitions, exported, System.currentTimeMillis() - startTime);
+    }
+
+    private long exportParallel(int partitions, DataFormat format, ChunkWriter writer) throws IOException {
+        List<String> boundaries = idBoundaries(partitions);
+        List<Future<Long>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i <= boundaries.size(); i++) {
+            String fromId = i == 0 ? null : boundaries.get(i - 1);
+            String toId = i == boundaries.size() ? null : boundaries.get(i);
+            futures.add(executor.submit(() -> exportRange(fromId, toId, format, writer)));
+        }
+
+        long exported = 0;
+        try {
+            for (Future<Long> future : futures) {
+                exported += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.abort();
+            throw new IOException("使用者匯出被中斷", e);
+        } catch (ExecutionException e) {
+            // 任一範圍失敗（包含客戶端中斷連線）時，其他範圍在下一個 chunk 停止
+            writer.abort();
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("使用者匯出失敗", e.getCause());
+        }
+        return exported;
+    }
+
+    /**
+     * 依 UUID 前兩個十六進位字元平均切分；第一段與最後一段不設下界／上界，確保涵蓋所有 id
+     */
+    private static List<String> idBoundaries(int partitions) {
+        List<String> boundaries = new ArrayList<>(partitions - 1);
+        for (int i = 1; i < partitions; i++) {
+            boundaries.add(String.format("%02x", i * 256 / partitions));
+        }
+        return boundaries;
+    }
+
+    private long exportRange(String fromId, String toId, DataFormat format, ChunkWriter writer) {
+        Long exported = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<Object[]> rows = openStream(fromId, toId)) {
+                List<Object[]> chunk = new ArrayList<>(chunkSize);
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == chunkSize) {
+                        writeChunk(chunk, format, writer);
+                        count += chunk.size();
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    writeChunk(chunk, format, writer);
+                    count += chunk.size();
+                }
+            }
+            return count;
+        });
+        return exported == null ? 0 : exported;
+    }
+
+    private Stream<Object[]> openStream(String fromId, String toId) {
+        if (fromId == null && toId == null) {
+            return userRepository.streamExportRows();
+        }
+        if (fromId == null) {
+            return userRepository.streamExportRowsBefore(toId);
+        }
+        if (toId == null) {
+            return userRepository.streamExportRowsFrom(fromId);
+        }
+        return userRepository.streamExportRowsInRange(fromId, toId);
+    }
+
+    /**
+     * 為一個 chunk 批次查詢角色代碼並編碼為一整塊輸出
+     * 資料列與角色皆為純量查詢，不會累積在持久化上下文中
+     */
+    private void writeChunk(List<Object[]> chunk, DataFormat format, ChunkWriter writer) {
+        List<String> userIds = new ArrayList<>(chunk.size());
+        for (Object[] row : chunk) {
+            userIds.add((String) row[0]);
+        }
+        Map<String, List<String>> roleCodesByUserId = new HashMap<>();
+        for (Object[] row : inListExecutor.query(userIds, userRoleRepository::findRoleCodesByUserIds)) {
+            roleCodesByUserId.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunk.size() * 256);
+        try {
+            for (Object[] row : chunk) {
+                List<String> roles = roleCodesByUserId.getOrDefault((String) row[0], List.of());
+                if (format == DataFormat.NDJSON) {
+                    objectMapper.writeValue(buffer, toExportRow(row, roles));
+                    buffer.write('\n');
+                } else {
+                    buffer.write(toCsvLine(row, roles).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            writer.write(buffer.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserExportRow toExportRow(Object[] row, List<String> roles) {
+        return new UserExportRow(
+                (String) row[0],
+                (String) row[1],
+                (String) row[2],
+                (String) row[3],
+                (String) row[4],
+                (Boolean) row[5],
+                (LocalDateTime) row[6],
+                (LocalDateTime) row[7],
+                roles);
+    }
+
+    private static String toCsvLine(Object[] row, List<String> roles) {
+        StringBuilder line = new StringBuilder(192);
+        for (int i = 0; i < row.length; i++) {
+            appendCsvField(line, row[i] == null ? "" : row[i].toString());
+            line.append(',');
+        }
+        appendCsvField(line, String.join("|", roles));
+        return line.append('\n').toString();
+    }
+
+    /**
+     * CSV 欄位跳脫；以 = + - @ Tab CR 開頭的值加上單引號，避免在試算表中被當成公式執行
+     */
+    private static void appendCsvField(StringBuilder line, String value) {
+        String safe = !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0 || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0) {
+            line.append('"').append(safe.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(safe);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * NDJSON 每行的內容
+     */
+    private record UserExportRow(String id, String username, String email, String firstName, String lastName,
+                                 Boolean isActive, LocalDateTime createdTime, LocalDateTime updatedTime,
+                                 List<String> roles) {
+    }
+
+    /**
+     * 多個範圍共用的輸出，每次寫入一整個 chunk，避免資料列交錯
+     */
+    private static final class ChunkWriter {
+
+        private final OutputStream outputStream;
+        private volatile boolean aborted;
+
+        private ChunkWriter(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        synchronized void write(byte[] bytes) {
+            if (aborted) {
+                throw new UncheckedIOException(new IOException("使用者匯出已中止"));
+            }
+            try {
+                outputStream.write(bytes);
+                outputStream.flush();
+            } catch (IOException e) {
+                aborted = true;
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void abort() {
+            aborted = true;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.userms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.userms.common.DataFormat;
+import com.userms.common.ErrorCodes;
+import com.userms.dto.UserImportResultDTO;
+import com.userms.dto.UserRegisterDTO;
+import com.userms.entity.User;
+import com.userms.exception.BusinessException;
+import com.userms.exception.UniqueConstraint;
+import com.userms.repository.ChunkedInListExecutor;
+import com.userms.repository.UserRepository;
+import com.userms.security.PasswordHashingExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 使用者批次匯入（NDJSON / CSV）
+ * <p>
+ * 逐行解析上傳內容，每累積一批：
+ * <ol>
+ *     <li>以 Bean Validation 驗證欄位，並排除同一批次內重複的使用者名稱與電子郵件</li>
+ *     <li>以兩次 IN 查詢檢查資料庫中已存在的使用者名稱與電子郵件（包含先前批次已匯入的資料）</li>
+ *     <li>在密碼雜湊執行緒池上平行雜湊密碼（限制在途數量，不影響登入）</li>
+ *     <li>單一交易內以 JDBC batch 寫入，完成後清空持久化上下文</li>
+ * </ol>
+ * 不合格的資料列記錄在結果中，不會中止整個匯入；記憶體用量只與批次大小相關。
+ * 匯入的用戶與註冊相同，不會自動指派角色。
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    /** 結果中最多回傳的失敗明細筆數 */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("username", "email", "password");
+
+    private final UserRepository userRepository;
+    private final ChunkedInListExecutor inListExecutor;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchIndex userSearchIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final int batchSize;
+
+    public UserImportService(UserRepository userRepository,
+                             ChunkedInListExecutor inListExecutor,
+                             PasswordHashingExecutor passwordHashingExecutor,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             UserSearchIndex userSearchIndex,
+                             TypeaheadIndex typeaheadIndex,
+                             @Value("${app.import.users.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.inListExecutor = inListExecutor;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userSearchIndex = userSearchIndex;
+        this.typeaheadIndex = typeaheadIndex;
+        // 唯一性檢查以 IN 查詢進行，批次不可超過 Oracle IN 清單上限
+        this.batchSize = Math.max(1, Math.min(batchSize, ChunkedInListExecutor.MAX_CHUNK_SIZE));
+    }
+
+    /**
+     * 從輸入串流匯入使用者
+     *
+     * @throws BusinessException CSV 缺少必要欄位
+     */
+    public UserImportResultDTO importUsers(DataFormat format, InputStream inputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RowReader rows = format == DataFormat.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        ImportState state = new ImportState();
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                processBatch(batch, state);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            processBatch(batch, state);
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("使用者匯入完成: format={}, total={}, imported={}, failed={}, 耗時 {}ms",
+                format, state.totalRows, state.importedRows, state.failedRows, duration);
+        return new UserImportResultDTO(state.totalRows, state.importedRows, state.failedRows, duration,
+                state.errors, state.errorsTruncated);
+    }
+
+    // ===== 批次處理 =====
+
+    private void processBatch(List<ImportRow> batch, ImportState state) {
+        List<ImportRow> candidates = validate(batch, state);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        candidates = excludeExisting(candidates, state);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<String> passwordHashes = passwordHashingExecutor.encodeAll(
+                candidates.stream().map(candidate -> candidate.user().getPassword()).toList());
+        List<User> users = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            users.add(toUser(candidates.get(i).user(), passwordHashes.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(users));
+            state.importedRows += users.size();
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // 檢查後才被其他請求寫入的資料會讓整批回滾，改為逐筆寫入以找出衝突的資料列
+            log.warn("使用者匯入批次寫入失敗，改為逐筆寫入: {}", e.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                // 回滾後的實體已被指派 ID，重新建立以免被視為既有資料
+                User user = toUser(candidates.get(i).user(), passwordHashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(user)));
+                    state.importedRows++;
+                } catch (DataIntegrityViolationException | PersistenceException rowException) {
+                    UniqueConstraint constraint = UniqueConstraint.from(rowException).orElse(null);
+                    if (constraint != null) {
+                        state.fail(candidates.get(i), constraint.errorCode(), constraint.message());
+                    } else {
+                        state.fail(candidates.get(i), ErrorCodes.DATA_INTEGRITY_VIOLATION, "使用者名稱或電子郵件已存在");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 欄位驗證與批次內重複檢查
+     * 跨批次的重複由下一批的 IN 查詢與唯一約束處理，不在整個匯入期間保留所有使用者名稱
+     */
+    private List<ImportRow> validate(List<ImportRow> batch, ImportState state) {
+        List<ImportRow> candidates = new ArrayList<>(batch.size());
+        Set<String> usernames = new HashSet<>(batch.size());
+        Set<String> emails = new HashSet<>(batch.size());
+        for (ImportRow row : batch) {
+            state.totalRows++;
+            if (row.parseError() != null) {
+                state.fail(row, ErrorCodes.INVALID_REQUEST_FORMAT, row.parseError());
+                continue;
+            }
+
+            UserRegisterDTO user = row.user();
+            if (user.getConfirmPassword() == null) {
+                user.setConfirmPassword(user.getPassword());
+            }
+            Set<ConstraintViolation<UserRegisterDTO>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                state.fail(row, ErrorCodes.VALIDATION_ERROR, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            if (!user.getPassword().equals(user.getConfirmPassword())) {
+                state.fail(row, ErrorCodes.PASSWORD_MISMATCH, "密碼與確認密碼不一致");
+                continue;
+            }
+            if (usernames.contains(user.getUsername())) {
+                state.fail(row, ErrorCodes.USERNAME_EXISTS, "使用者名稱在匯入檔案中重複");
+                continue;
+            }
+            if (emails.contains(user.getEmail())) {
+                state.fail(row, ErrorCodes.EMAIL_EXISTS, "電子郵件在匯入檔案中重複");
+                continue;
+            }
+            usernames.add(user.getUsername());
+            emails.add(user.getEmail());
+            candidates.add(row);
+        }
+        return candidates;
+    }
+
+    /**
+     * 以兩次 IN 查詢排除資料庫中已存在的使用者名稱與電子郵件
+     */
+    private List<ImportRow> excludeExisting(List<ImportRow> candidates, ImportState state) {
+        Set<String> usernames = new HashSet<>(candidates.size());
+        Set<String> emails = new HashSet<>(candidates.size());
+        for (ImportRow candidate : candidates) {
+            usernames.add(candidate.user().getUsername());
+            emails.add(candidate.user().getEmail());
+        }
+        Set<String> existingUsernames = new HashSet<>(
+                inListExecutor.query(usernames, userRepository::findExistingUsernames));
+        Set<String> existingEmails = new HashSet<>(
+                inListExecutor.query(emails, userRepository::findExistingEmails));
+        if (existingUsernames.isEmpty() && existingEmails.isEmpty()) {
+            return candidates;
+        }
+
+        List<ImportRow> remaining = new ArrayList<>(candidates.size());
+        for (ImportRow candidate : candidates) {
+            if (existingUsernames.contains(candidate.user().getUsername())) {
+                state.fail(candidate, ErrorCodes.USERNAME_EXISTS, "使用者名稱已存在");
+            } else if (existingEmails.contains(candidate.user().getEmail())) {
+                state.fail(candidate, ErrorCodes.EMAIL_EXISTS, "電子郵件已被使用");
+            } else {
+                remaining.add(candidate);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 在目前交易中以 JDBC batch 寫入；索引更新在交易提交後生效
+     */
+    private void persist(List<User> users) {
+        // batch 大小只在寫入期間調整，結束後還原 Session 原本的設定
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            for (User user : users) {
+                entityManager.persist(user);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        for (User user : users) {
+            userSearchIndex.index(user);
+            typeaheadIndex.putUser(user);
+        }
+    }
+
+    private static User toUser(UserRegisterDTO registerDTO, String passwordHash) {
+        User user = new User();
+        user.setUsername(registerDTO.getUsername());
+        user.setEmail(registerDTO.getEmail());
+        user.setPasswordHash(passwordHash);
+        user.setFirstName(registerDTO.getFirstName());
+        user.setLastName(registerDTO.getLastName());
+        user.setIsActive(true);
+
+        LocalDateTime now = LocalDateTime.now();
+        long timestamp = System.currentTimeMillis();
+        user.setCreatedTime(now);
+        user.setCreatedTs(timestamp);
+        user.setUpdatedTime(now);
+        user.setUpdatedTs(timestamp);
+        return user;
+    }
+
+    // ===== 輸入解析 =====
+
+    /**
+     * 一筆輸入資料；解析失敗時 user 為 null，parseError 為原因
+     */
+    record ImportRow(long row, UserRegisterDTO user, String parseError) {
+
+        String username() {
+            return user == null ? null : user.getUsername();
+        }
+    }
+
+    interface RowReader {
+
+        /**
+         * @return 下一筆資料，輸入結束時回傳 null
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * NDJSON：每行一個 JSON 物件，欄位與註冊請求相同，空白行略過
+     */
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long row;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                row++;
+                try {
+                    return new ImportRow(row, objectMapper.readValue(line, UserRegisterDTO.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(row, null, "JSON 格式錯誤: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV（RFC 4180）：第一列為標題，欄位名稱不區分大小寫；
+     * 必要欄位為 username、email、password，可選 confirmPassword、firstName、lastName
+     */
+    static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long row;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new BusinessException("CSV 缺少標題列", ErrorCodes.INVALID_REQUEST_FORMAT);
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+                if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                    // 略過 UTF-8 BOM（試算表軟體另存 CSV 時常見）
+                    name = name.substring(1);
+                }
+                columns.putIfAbsent(name, i);
+            }
+            for (String required : CSV_REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new BusinessException("CSV 缺少必要欄位: " + required, ErrorCodes.INVALID_REQUEST_FORMAT);
+                }
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            row++;
+            UserRegisterDTO user = new UserRegisterDTO();
+            user.setUsername(column(record, "username"));
+            user.setEmail(column(record, "email"));
+            user.setPassword(column(record, "password"));
+            user.setConfirmPassword(column(record, "confirmpassword"));
+            user.setFirstName(column(record, "firstname"));
+            user.setLastName(column(record, "lastname"));
+            return new ImportRow(row, user, null);
+        }
+
+        private String column(List<String> record, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        /**
+         * 讀取一筆記錄，支援以雙引號包住含逗號、換行或雙引號（以兩個雙引號表示）的欄位
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // ===== 匯入狀態 =====
+
+    private static final class ImportState {
+
+        private final List<UserImportResultDTO.RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+        private boolean errorsTruncated;
+
+        void fail(ImportRow row, String errorCode, String message) {
+            failedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportResultDTO.RowError(row.row(), row.username(), errorCode, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
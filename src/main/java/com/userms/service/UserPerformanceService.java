@@ -4,16 +4,20 @@ import com.userms.common.PageResult;
 import com.userms.dto.UserDTO;
 import com.userms.entity.Role;
 import com.userms.entity.User;
+import com.userms.repository.ChunkedInListExecutor;
 import com.userms.repository.UserRepository;
 import com.userms.repository.UserRoleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +36,7 @@ public class UserPerformanceService {
 
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
+    private final ChunkedInListExecutor inListExecutor;
 
     /**
      * 方法 1: 存在 N+1 問題的版本 (BAD)
@@ -115,18 +120,21 @@ public class UserPerformanceService {
      * 方法 3: 使用 @EntityGraph 的版本 (BEST)
      * 
      * 解決方案：
-     * - 使用 @EntityGraph 在單次查詢中 JOIN 獲取關聯數據
-     * - 總查詢次數：1
+     * - 先以 SQL 分頁取得該頁的用戶 ID（含 count）
+     * - 再使用 @EntityGraph 在單次查詢中 JOIN 獲取這些用戶的關聯數據
+     * - 總查詢次數：2 + count，且資料庫只回傳該頁的資料
      * 
-     * 這個方法需要在 Repository 中定義，見 UserRepository.findAllWithRoles()
+     * 注意：@EntityGraph 集合抓取直接搭配 Pageable 時，Hibernate 會在記憶體中分頁（全表載入）
+     * 
+     * 查詢定義於 Repository，見 UserRepository.findAllIds() 與 UserRepository.findWithRolesByIdIn()
      */
     public PageResult<UserDTO> getUsersWithEntityGraph(Pageable pageable) {
         log.info("=== @EntityGraph 優化演示開始 ===");
         long startTime = System.currentTimeMillis();
         
-        // 使用 @EntityGraph 一次性加載用戶和角色關聯
-        Page<User> userPage = userRepository.findAllWithRoles(pageable);
-        log.info("使用 @EntityGraph 一次性查詢：獲取 {} 個用戶及其角色", userPage.getContent().size());
+        // 兩階段：SQL 分頁取得用戶 ID，再以 @EntityGraph 加載這些用戶和角色關聯
+        Page<User> userPage = fetchWithRoles(userRepository.findAllIds(pageable));
+        log.info("使用 @EntityGraph 兩階段查詢：獲取 {} 個用戶及其角色", userPage.getContent().size());
         
         List<UserDTO> userDTOs = userPage.getContent().stream()
                 .map(this::convertToUserDTOFromEntityGraph)
@@ -134,7 +142,7 @@ public class UserPerformanceService {
         
         long endTime = System.currentTimeMillis();
         log.info("=== @EntityGraph 優化演示結束 ===");
-        log.info("總耗時：{} ms，只執行了 1 次 SQL 查詢（最優！）", endTime - startTime);
+        log.info("總耗時：{} ms，執行了 ID 分頁、count 與角色加載共 3 次 SQL 查詢", endTime - startTime);
         
         return PageResult.of(userDTOs, userPage.getNumber(), userPage.getSize(), userPage.getTotalElements());
     }
@@ -173,11 +181,33 @@ public class UserPerformanceService {
         log.info("========================================");
     }
 
+    /**
+     * 依 ID 分頁載入用戶與角色，保持 ID 分頁的排序
+     * IN 清單經由 ChunkedInListExecutor 分段並補齊綁定變數數量
+     */
+    private Page<User> fetchWithRoles(Page<String> idPage) {
+        List<String> ids = idPage.getContent();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
+        }
+
+        Map<String, User> usersById = new HashMap<>(ids.size() * 2);
+        for (User user : inListExecutor.query(ids, userRepository::findWithRolesByIdIn)) {
+            usersById.put(user.getId(), user);
+        }
+
+        List<User> users = ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(users, idPage.getPageable(), idPage.getTotalElements());
+    }
+
     /**
      * 批次獲取用戶角色的輔助方法
      */
     private Map<String, List<String>> getUserRolesBatch(List<String> userIds) {
-        List<Object[]> userRoles = userRoleRepository.findRoleCodesByUserIds(userIds);
+        List<Object[]> userRoles = inListExecutor.query(userIds, userRoleRepository::findRoleCodesByUserIds);
         
         return userRoles.stream()
                 .collect(Collectors.groupingBy(
@@ -0,0 +1,447 @@
+package com.userms.service;
+
+import com.userms.entity.User;
+import com.userms.repository.UserRepository;
+import com.userms.utils.TransactionUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 使用者關鍵字搜索的記憶體 Trigram 倒排索引
+ * <p>
+ * 索引 username、email、firstName、lastName 四個欄位（不區分大小寫）。
+ * 每個欄位切成連續三個字元的 trigram，倒排表以「遞增 doc 編號的差值 + varint」壓縮儲存。
+ * 查詢時取關鍵字所有 trigram 的倒排表求交集，再以子字串比對確認，結果與 {@code LIKE '%kw%'} 相同；
+ * 候選數只與命中的倒排表大小相關，與使用者總數無關。少於三個字元的關鍵字無法使用 trigram，改為掃描記憶體中的欄位。
+ * 查詢只保留相關度最高的 limit 筆，回傳的 ID 數量（以及呼叫端後續的資料庫載入）不會隨使用者總數成長。
+ * <p>
+ * 啟動後以 id 遞增的批次查詢載入，之後由服務層在交易提交後同步更新；
+ * 更新時舊的 doc 只標記刪除，新版本以新的 doc 編號附加在倒排表尾端，倒排表只需追加不需重新編碼。
+ * 定期從資料庫重建一次，清除已刪除的 doc 並吸收其他節點的變更；重建期間的寫入會在切換時重新套用。
+ * 第一次載入在背景執行緒進行，不延遲應用程式就緒；索引就緒前 {@link #search(String, int)} 回傳空值，由呼叫端改用資料庫查詢。
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private static final Comparator<Match> BY_RELEVANCE =
+            Comparator.comparingInt(Match::score).thenComparing(Match::username);
+
+    private final UserRepository userRepository;
+    private final int batchSize;
+
+    private final StampedLock lock = new StampedLock();
+    /** guarded by lock */
+    private Segment segment = new Segment();
+    /** 重建期間的寫入，切換到新索引時重新套用；非重建期間為 null（guarded by lock） */
+    private List<Consumer<Segment>> pendingWrites;
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.users.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.batchSize = batchSize;
+
+        Gauge.builder("users.search.index.documents", this, index -> index.read(s -> s.liveDocs))
+                .description("Users in the keyword search index")
+                .register(meterRegistry);
+        Gauge.builder("users.search.index.postings.bytes", this, index -> index.read(s -> s.postingBytes))
+                .description("Compressed posting list size of the keyword search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 索引是否已完成第一次載入
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 搜索關鍵字，回傳依相關度排序的前 limit 個使用者 ID
+     * 排序：完全相符 &gt; 開頭相符 &gt; 包含；同等級時 username &gt; email &gt; firstName &gt; lastName
+     *
+     * @return 索引尚未就緒時為 empty
+     */
+    public Optional<List<String>> search(String keyword, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String needle = normalize(keyword);
+        return Optional.of(read(s -> s.search(needle, limit)));
+    }
+
+    /**
+     * 新增或更新使用者的索引，於目前交易提交後生效
+     */
+    public void index(User user) {
+        String userId = user.getId();
+        String[] fields = fieldsOf(user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName());
+        TransactionUtils.afterCommit(() -> write(s -> s.upsert(userId, fields)));
+    }
+
+    /**
+     * 移除使用者的索引，於目前交易提交後生效
+     */
+    public void remove(String userId) {
+        TransactionUtils.afterCommit(() -> write(s -> s.remove(userId)));
+    }
+
+    /**
+     * 在背景執行緒載入索引；載入完成前關鍵字搜索改用資料庫查詢
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("使用者搜索索引載入失敗，關鍵字搜索暫時改用資料庫查詢: {}", e.getMessage(), e);
+            }
+        }, "user-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 定期重建，清除標記刪除的 doc 並同步其他節點的變更
+     */
+    @Scheduled(fixedDelayString = "${app.search.users.rebuild-interval:PT30M}",
+            initialDelayString = "${app.search.users.rebuild-interval:PT30M}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("使用者搜索索引重建失敗，沿用現有索引: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 從資料庫批次載入並建立新索引，完成後整體替換
+     * 查詢在鎖外進行，搜索與寫入不會被阻塞
+     */
+    public void rebuild() {
+        long stamp = lock.writeLock();
+        try {
+            if (pendingWrites != null) {
+                log.debug("使用者搜索索引正在重建中，略過本次重建");
+                return;
+            }
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        Segment fresh = new Segment();
+        try {
+            long startTime = System.currentTimeMillis();
+            Pageable batch = PageRequest.ofSize(batchSize);
+            List<Object[]> rows = userRepository.findSearchRowsFirst(batch);
+            while (!rows.isEmpty()) {
+                String lastId = null;
+                for (Object[] row : rows) {
+                    lastId = (String) row[0];
+                    fresh.upsert(lastId, fieldsOf((String) row[1], (String) row[2], (String) row[3], (String) row[4]));
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = userRepository.findSearchRowsAfter(lastId, batch);
+            }
+
+            stamp = lock.writeLock();
+            try {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                segment = fresh;
+                ready = true;
+            } finally {
+                pendingWrites = null;
+                lock.unlockWrite(stamp);
+            }
+            log.info("使用者搜索索引重建完成: {} 位使用者, {} 個 trigram, 倒排表 {} bytes, 耗時 {}ms",
+                    fresh.liveDocs, fresh.postings.size(), fresh.postingBytes, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            stamp = lock.writeLock();
+            pendingWrites = null;
+            lock.unlockWrite(stamp);
+            throw e;
+        }
+    }
+
+    private void write(Consumer<Segment> write) {
+        long stamp = lock.writeLock();
+        try {
+            write.accept(segment);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <T> T read(Function<Segment, T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(segment);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static String[] fieldsOf(String username, String email, String firstName, String lastName) {
+        return new String[]{normalize(username), normalize(email), normalize(firstName), normalize(lastName)};
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * 單一版本的索引內容，只在鎖內存取
+     */
+    private static final class Segment {
+
+        private String[] userIds = new String[1024];
+        private String[][] fields = new String[1024][];
+        private int nextDoc;
+        private int liveDocs;
+        private long postingBytes;
+        private final Map<String, Integer> docsByUserId = new HashMap<>();
+        private final Map<Long, PostingList> postings = new HashMap<>();
+
+        void upsert(String userId, String[] values) {
+            remove(userId);
+
+            int doc = nextDoc++;
+            if (doc == userIds.length) {
+                userIds = Arrays.copyOf(userIds, doc * 2);
+                fields = Arrays.copyOf(fields, doc * 2);
+            }
+            userIds[doc] = userId;
+            fields[doc] = values;
+            docsByUserId.put(userId, doc);
+            liveDocs++;
+
+            Set<Long> grams = new HashSet<>();
+            for (String value : values) {
+                for (int i = 0; i + GRAM <= value.length(); i++) {
+                    grams.add(trigram(value, i));
+                }
+            }
+            for (Long gram : grams) {
+                PostingList postingList = postings.computeIfAbsent(gram, k -> new PostingList());
+                postingBytes += postingList.append(doc);
+            }
+        }
+
+        /**
+         * 標記刪除，倒排表中的舊 doc 在查詢時略過，下次重建時清除
+         */
+        void remove(String userId) {
+            Integer doc = docsByUserId.remove(userId);
+            if (doc != null) {
+                userIds[doc] = null;
+                fields[doc] = null;
+                liveDocs--;
+            }
+        }
+
+        /**
+         * 以大小為 limit 的堆積保留最佳結果，最差的一筆在堆頂以便替換
+         */
+        List<String> search(String needle, int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            PriorityQueue<Match> top = new PriorityQueue<>(limit, BY_RELEVANCE.reversed());
+            if (needle.length() < GRAM) {
+                for (int doc = 0; doc < nextDoc; doc++) {
+                    collect(doc, needle, top, limit);
+                }
+            } else {
+                int[] candidates = candidates(needle);
+                for (int doc : candidates) {
+                    collect(doc, needle, top, limit);
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(top);
+            matches.sort(BY_RELEVANCE);
+            List<String> ranked = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                ranked.add(match.userId());
+            }
+            return ranked;
+        }
+
+        /**
+         * 依倒排表大小由小到大求交集，候選數不會超過最短的倒排表
+         */
+        private int[] candidates(String needle) {
+            Set<Long> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                grams.add(trigram(needle, i));
+            }
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                PostingList postingList = postings.get(gram);
+                if (postingList == null) {
+                    return new int[0];
+                }
+                lists.add(postingList);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            int[] docs = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && docs.length > 0; i++) {
+                docs = lists.get(i).intersect(docs);
+            }
+            return docs;
+        }
+
+        private void collect(int doc, String needle, PriorityQueue<Match> top, int limit) {
+            String[] values = fields[doc];
+            if (values == null) {
+                return;
+            }
+            int best = Integer.MAX_VALUE;
+            for (int field = 0; field < values.length; field++) {
+                int position = values[field].indexOf(needle);
+                if (position < 0) {
+                    continue;
+                }
+                int level = values[field].length() == needle.length() ? 0 : position == 0 ? 1 : 2;
+                best = Math.min(best, level * values.length + field);
+            }
+            if (best == Integer.MAX_VALUE) {
+                return;
+            }
+            Match match = new Match(userIds[doc], values[0], best);
+            if (top.size() < limit) {
+                top.add(match);
+            } else if (BY_RELEVANCE.compare(match, top.peek()) < 0) {
+                top.poll();
+                top.add(match);
+            }
+        }
+    }
+
+    /**
+     * 壓縮倒排表：遞增 doc 編號的差值以 varint 編碼
+     * doc 編號只增不減，新增一律附加在尾端
+     */
+    private static final class PostingList {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int size;
+        private int lastDoc = -1;
+
+        /**
+         * @return 新增的位元組數
+         */
+        int append(int doc) {
+            int delta = doc - lastDoc;
+            lastDoc = doc;
+            size++;
+            int before = length;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            return length - before;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            int[] docs = new int[size];
+            int doc = -1;
+            int offset = 0;
+            for (int i = 0; i < size; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                docs[i] = doc;
+            }
+            return docs;
+        }
+
+        /**
+         * 與已排序的 doc 陣列求交集，邊解碼邊比對
+         */
+        int[] intersect(int[] sortedDocs) {
+            int[] result = new int[Math.min(size, sortedDocs.length)];
+            int count = 0;
+            int doc = -1;
+            int offset = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < sortedDocs.length; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+
+                while (j < sortedDocs.length && sortedDocs[j] < doc) {
+                    j++;
+                }
+                if (j < sortedDocs.length && sortedDocs[j] == doc) {
+                    result[count++] = doc;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    private record Match(String userId, String username, int score) {
+    }
+}
@@ -1,26 +1,44 @@
 package com.userms.service;
 
+import com.userms.common.CountMode;
 import com.userms.common.ErrorCodes;
+import com.userms.common.CursorResult;
 import com.userms.common.PageResult;
+import com.userms.dto.BulkOperationResultDTO;
 import com.userms.dto.UserDTO;
+import com.userms.dto.UserSearchCriteriaDTO;
 import com.userms.dto.UserRegisterDTO;
 import com.userms.entity.Role;
 import com.userms.entity.User;
 import com.userms.entity.UserRole;
 import com.userms.exception.BusinessException;
+import com.userms.repository.ChunkedInListExecutor;
+import com.userms.repository.KeysetPager;
 import com.userms.repository.RoleRepository;
 import com.userms.repository.UserRepository;
+import com.userms.repository.SearchSpecifications;
 import com.userms.repository.UserRoleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import com.userms.security.PasswordHashingExecutor;
+import com.userms.security.JwtPrincipal;
+import com.userms.security.TokenRevocationService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -30,26 +48,78 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDTOCache userDTOCache;
+    private final PageCountEstimator pageCountEstimator;
+    private final UserSearchIndex userSearchIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final ChunkedInListExecutor inListExecutor;
 
     public PageResult<UserDTO> getAllUsers(Pageable pageable) {
-        Page<User> userPage = userRepository.findAll(pageable);
-        List<UserDTO> userDTOs = userPage.getContent().stream()
-                .map(this::convertToUserDTO)
-                .toList();
-        
-        return PageResult.of(userDTOs, userPage.getNumber(), userPage.getSize(), userPage.getTotalElements());
+        return getAllUsers(pageable, CountMode.EXACT);
+    }
+
+    /**
+     * 分頁查詢用戶，依 countMode 決定總數的計算方式
+     * NONE / ESTIMATE 以 Slice 查詢取代 COUNT
+     */
+    public PageResult<UserDTO> getAllUsers(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<User> userPage = userRepository.findAll(pageable);
+            List<UserDTO> userDTOs = convertToUserDTOs(userPage.getContent());
+
+            return PageResult.of(userDTOs, userPage.getNumber(), userPage.getSize(), userPage.getTotalElements());
+        }
+
+        Slice<User> userSlice = userRepository.findSliceBy(pageable);
+        List<UserDTO> userDTOs = convertToUserDTOs(userSlice.getContent());
+        if (countMode == CountMode.ESTIMATE) {
+            return PageResult.estimated(userDTOs, userSlice, pageCountEstimator.estimate("users", userRepository::count));
+        }
+        return PageResult.of(userDTOs, userSlice);
+    }
+
+    /**
+     * 游標分頁查詢用戶（依建立時間倒序）
+     * 以 (createdTime, id) seek 取代 OFFSET，且不執行 count
+     */
+    public CursorResult<UserDTO> scrollUsers(String cursor, int size) {
+        return KeysetPager.fetch(userRepository, null, cursor, size, this::convertToUserDTOs);
+    }
+
+    /**
+     * 進階搜索用戶（游標分頁，依建立時間倒序）
+     * 只為有提供的條件產生 SQL，文字條件為前綴比對
+     */
+    public CursorResult<UserDTO> advancedSearchUsers(UserSearchCriteriaDTO criteria, String cursor, int size) {
+        Specification<User> specification = SearchSpecifications.allOf(
+                SearchSpecifications.startsWith("username", criteria.getUsername()),
+                SearchSpecifications.startsWith("email", criteria.getEmail()),
+                SearchSpecifications.startsWith("firstName", criteria.getFirstName()),
+                SearchSpecifications.startsWith("lastName", criteria.getLastName()),
+                SearchSpecifications.equalTo("isActive", criteria.getIsActive()),
+                SearchSpecifications.createdBetween(criteria.getCreatedFrom(), criteria.getCreatedTo()));
+        return KeysetPager.fetch(userRepository, specification, cursor, size, this::convertToUserDTOs);
     }
 
     public UserDTO getUserById(String userId) {
-        User user = findUserById(userId);
-        return convertToUserDTO(user);
+        return userDTOCache.getById(userId, id -> convertToUserDTO(findUserById(id)));
     }
 
-    public List<UserDTO> searchUsers(String keyword) {
-        List<User> users = userRepository.findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-                keyword, keyword, keyword, keyword);
-        return users.stream().map(this::convertToUserDTO).toList();
+    /**
+     * 關鍵字搜索用戶
+     * 由記憶體 trigram 索引取得排序後的前 limit 個用戶 ID，再以 IN 查詢載入；
+     * 索引尚未就緒時改用資料庫 LIKE 查詢，同樣最多回傳 limit 筆
+     */
+    public List<UserDTO> searchUsers(String keyword, int limit) {
+        Optional<List<String>> rankedIds = userSearchIndex.search(keyword, limit);
+        if (rankedIds.isEmpty()) {
+            List<User> users = userRepository.findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
+                    keyword, keyword, keyword, keyword, PageRequest.ofSize(limit));
+            return convertToUserDTOs(users);
+        }
+        return convertToUserDTOs(findUsersInOrder(rankedIds.get()));
     }
 
     @Transactional
@@ -58,8 +128,11 @@ public class UserService {
 
         validateCreateUser(registerDTO);
 
+        // 使用者名稱與電子郵件的唯一性由資料庫約束保證，立即 flush 以在此回報衝突
         User user = createUserFromDTO(registerDTO);
-        User savedUser = userRepository.save(user);
+        User savedUser = userRepository.saveAndFlush(user);
+        userSearchIndex.index(savedUser);
+        typeaheadIndex.putUser(savedUser);
 
         log.info("用戶創建成功: {}", savedUser.getUsername());
         return convertToUserDTO(savedUser);
@@ -70,17 +143,7 @@ public class UserService {
         log.info("更新用戶: {}", userId);
 
         User existingUser = findUserById(userId);
-        
-        // 檢查用戶名和電子郵件唯一性（排除當前用戶）
-        if (!existingUser.getUsername().equals(userDTO.getUsername()) &&
-            userRepository.existsByUsername(userDTO.getUsername())) {
-            throw new BusinessException("使用者名稱已存在", ErrorCodes.USERNAME_EXISTS);
-        }
-
-        if (!existingUser.getEmail().equals(userDTO.getEmail()) &&
-            userRepository.existsByEmail(userDTO.getEmail())) {
-            throw new BusinessException("電子郵件已被使用", ErrorCodes.EMAIL_EXISTS);
-        }
+        boolean deactivated = existingUser.isActive() && Boolean.FALSE.equals(userDTO.getIsActive());
 
         // 更新用戶資訊
         existingUser.setUsername(userDTO.getUsername());
@@ -91,7 +154,14 @@ public class UserService {
         existingUser.setUpdatedTime(LocalDateTime.now());
         existingUser.setUpdatedTs(System.currentTimeMillis());
 
-        User savedUser = userRepository.save(existingUser);
+        // 不預先查詢重複，由 uk_users_username / uk_users_email 約束在 flush 時回報
+        User savedUser = userRepository.saveAndFlush(existingUser);
+        if (deactivated) {
+            tokenRevocationService.revokeAllForUser(userId);
+        }
+        userDTOCache.evict(userId);
+        userSearchIndex.index(savedUser);
+        typeaheadIndex.putUser(savedUser);
         log.info("用戶更新成功: {}", savedUser.getUsername());
         
         return convertToUserDTO(savedUser);
@@ -105,6 +175,7 @@ public class UserService {
         user.setUpdatedTime(LocalDateTime.now());
         user.setUpdatedTs(System.currentTimeMillis());
         userRepository.save(user);
+        userDTOCache.evict(userId);
         log.info("用戶啟用成功: {}", user.getUsername());
     }
 
@@ -116,6 +187,9 @@ public class UserService {
         user.setUpdatedTime(LocalDateTime.now());
         user.setUpdatedTs(System.currentTimeMillis());
         userRepository.save(user);
+        // 已簽發的 Token 立即失效
+        tokenRevocationService.revokeAllForUser(userId);
+        userDTOCache.evict(userId);
         log.info("用戶停用成功: {}", user.getUsername());
     }
 
@@ -129,9 +203,99 @@ public class UserService {
         
         // 刪除用戶
         userRepository.delete(user);
+        // Token 只依 Claims 授權，已刪除用戶的 Token 需立即撤銷
+        tokenRevocationService.revokeAllForUser(userId);
+        userDTOCache.evict(userId);
+        userSearchIndex.remove(userId);
+        typeaheadIndex.removeUser(userId);
         log.info("用戶刪除成功: {}", user.getUsername());
     }
 
+    // ===== 批次操作 =====
+
+    @Transactional
+    public BulkOperationResultDTO enableUsers(List<String> userIds) {
+        return updateActiveStatus(userIds, true);
+    }
+
+    /**
+     * 批次停用用戶，並撤銷被停用用戶已簽發的 Token
+     */
+    @Transactional
+    public BulkOperationResultDTO disableUsers(List<String> userIds) {
+        BulkOperationResultDTO result = updateActiveStatus(userIds, false);
+        tokenRevocationService.revokeAllForUsers(result.getChanged());
+        return result;
+    }
+
+    /**
+     * 以一次狀態查詢與一次 UPDATE 變更狀態不同的用戶，不載入實體
+     * （每 1000 筆一段；數量超過門檻時改以暫存表各一個 SQL 完成）
+     */
+    private BulkOperationResultDTO updateActiveStatus(List<String> userIds, boolean active) {
+        log.info("批次{}用戶: {} 筆", active ? "啟用" : "停用", userIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+        LocalDateTime now = LocalDateTime.now();
+        long timestamp = System.currentTimeMillis();
+        String operatorId = JwtPrincipal.currentUserId();
+
+        Map<String, Boolean> statusById = new HashMap<>();
+        for (Object[] row : inListExecutor.query(userIds,
+                userRepository::findActiveStatusByIds, userRepository::findActiveStatusInTempIds)) {
+            statusById.put((String) row[0], (Boolean) row[1]);
+        }
+        for (String userId : ChunkedInListExecutor.distinct(userIds)) {
+            Boolean current = statusById.get(userId);
+            if (current == null) {
+                result.getNotFound().add(userId);
+            } else if (current == active) {
+                result.getUnchanged().add(userId);
+            } else {
+                result.getChanged().add(userId);
+            }
+        }
+        inListExecutor.update(result.getChanged(),
+                chunk -> userRepository.updateActiveStatusByIds(chunk, active, now, timestamp, operatorId),
+                () -> userRepository.updateActiveStatusInTempIds(active, now, timestamp, operatorId));
+
+        userDTOCache.evictAll(result.getChanged());
+        log.info("批次{}用戶完成: 變更 {}，未變更 {}，不存在 {}", active ? "啟用" : "停用",
+                result.getChanged().size(), result.getUnchanged().size(), result.getNotFound().size());
+        return result;
+    }
+
+    /**
+     * 批次刪除用戶，先刪除角色關聯再刪除用戶，各以批次 DELETE 完成，並撤銷被刪除用戶已簽發的 Token
+     */
+    @Transactional
+    public BulkOperationResultDTO deleteUsers(List<String> userIds) {
+        log.info("批次刪除用戶: {} 筆", userIds.size());
+        BulkOperationResultDTO result = BulkOperationResultDTO.empty();
+
+        Set<String> existing = new HashSet<>(inListExecutor.query(userIds,
+                userRepository::findExistingIds, userRepository::findExistingIdsInTempIds));
+        for (String userId : ChunkedInListExecutor.distinct(userIds)) {
+            if (existing.contains(userId)) {
+                result.getChanged().add(userId);
+            } else {
+                result.getNotFound().add(userId);
+            }
+        }
+        inListExecutor.update(result.getChanged(),
+                userRoleRepository::deleteAllByUserIds, userRoleRepository::deleteAllByUserIdsInTempIds);
+        inListExecutor.update(result.getChanged(),
+                userRepository::deleteAllByIdIn, userRepository::deleteAllInTempIds);
+        tokenRevocationService.revokeAllForUsers(result.getChanged());
+
+        userDTOCache.evictAll(result.getChanged());
+        for (String userId : result.getChanged()) {
+            userSearchIndex.remove(userId);
+            typeaheadIndex.removeUser(userId);
+        }
+        log.info("批次刪除用戶完成: 刪除 {}，不存在 {}", result.getChanged().size(), result.getNotFound().size());
+        return result;
+    }
+
     @Transactional
     public void assignRole(String userId, String roleCode) {
         log.info("為用戶 {} 分配角色 {}", userId, roleCode);
@@ -148,6 +312,8 @@ public class UserService {
         UserRole userRole = new UserRole(user, role);
 
         userRoleRepository.save(userRole);
+        userDTOCache.evict(userId);
+        tokenRevocationService.revokeAllForUser(userId);
         log.info("角色分配成功: 用戶 {} 獲得角色 {}", user.getUsername(), role.getRoleName());
     }
 
@@ -167,6 +333,8 @@ public class UserService {
         // 直接刪除用戶角色關聯
         UserRole.UserRoleId userRoleId = new UserRole.UserRoleId(userId, role.getId());
         userRoleRepository.deleteById(userRoleId);
+        userDTOCache.evict(userId);
+        tokenRevocationService.revokeAllForUser(userId);
         log.info("角色撤銷成功: 用戶 {} 失去角色 {}", user.getUsername(), role.getRoleName());
     }
 
@@ -181,14 +349,6 @@ public class UserService {
     }
 
     private void validateCreateUser(UserRegisterDTO registerDTO) {
-        if (userRepository.existsByUsername(registerDTO.getUsername())) {
-            throw new BusinessException("使用者名稱已存在", ErrorCodes.USERNAME_EXISTS);
-        }
-
-        if (userRepository.existsByEmail(registerDTO.getEmail())) {
-            throw new BusinessException("電子郵件已被使用", ErrorCodes.EMAIL_EXISTS);
-        }
-
         if (!registerDTO.getPassword().equals(registerDTO.getConfirmPassword())) {
             throw new BusinessException("密碼與確認密碼不一致", ErrorCodes.PASSWORD_MISMATCH);
         }
@@ -198,7 +358,7 @@ public class UserService {
         User user = new User();
         user.setUsername(registerDTO.getUsername());
         user.setEmail(registerDTO.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(registerDTO.getPassword()));
+        user.setPasswordHash(passwordHashingExecutor.encode(registerDTO.getPassword()));
         user.setFirstName(registerDTO.getFirstName());
         user.setLastName(registerDTO.getLastName());
         user.setIsActive(true);
@@ -213,7 +373,60 @@ public class UserService {
         return user;
     }
 
+    /**
+     * 批次轉換使用者列表
+     * 角色代碼以 IN 查詢一次取得，不論列表長度，查詢次數固定（每 1000 筆一次）
+     */
+    private List<UserDTO> convertToUserDTOs(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<String>> roleCodesByUserId = findRoleCodesByUserIds(
+                users.stream().map(User::getId).toList());
+
+        return users.stream()
+                .map(user -> convertToUserDTO(user, roleCodesByUserId.getOrDefault(user.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * 批次查詢角色代碼
+     * Oracle 的 IN 清單上限為 1000，超過時分段查詢（不在交易中時各段平行執行）
+     */
+    private Map<String, List<String>> findRoleCodesByUserIds(List<String> userIds) {
+        Map<String, List<String>> roleCodesByUserId = new HashMap<>();
+        for (Object[] row : inListExecutor.queryParallel(userIds, userRoleRepository::findRoleCodesByUserIds)) {
+            roleCodesByUserId.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return roleCodesByUserId;
+    }
+
+    /**
+     * 依 ID 批次載入用戶並保持傳入的順序
+     * 已不存在的用戶（例如索引尚未同步的刪除）直接略過
+     */
+    private List<User> findUsersInOrder(List<String> userIds) {
+        Map<String, User> usersById = new HashMap<>();
+        for (User user : inListExecutor.query(userIds, userRepository::findAllById)) {
+            usersById.put(user.getId(), user);
+        }
+
+        List<User> users = new ArrayList<>(usersById.size());
+        for (String userId : userIds) {
+            User user = usersById.get(userId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
     private UserDTO convertToUserDTO(User user) {
+        return convertToUserDTO(user, userRoleRepository.findRoleCodesByUserId(user.getId()));
+    }
+
+    private UserDTO convertToUserDTO(User user, List<String> roleCodes) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setUsername(user.getUsername());
@@ -224,9 +437,7 @@ public class UserService {
         dto.setIsActive(user.getIsActive());
         dto.setCreatedTime(user.getCreatedTime());
         dto.setUpdatedTime(user.getUpdatedTime());
-
-        dto.setRoles(userRoleRepository.findRoleCodesByUserId(user.getId()));
-
+        dto.setRoles(roleCodes);
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.userms.utils;
+
+import com.userms.common.ErrorCodes;
+import com.userms.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游標分頁的游標編碼
+ * 游標內容為最後一筆資料的 (createdTime, id)，以 Base64 URL 編碼，對客戶端而言是不透明字串
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 游標位置
+     *
+     * @param createdTime 最後一筆資料的建立時間
+     * @param id          最後一筆資料的 ID（建立時間相同時的排序依據）
+     */
+    public record Cursor(LocalDateTime createdTime, String id) {
+    }
+
+    public static String encode(LocalDateTime createdTime, String id) {
+        String raw = createdTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游標，空白表示第一頁（回傳 null）
+     *
+     * @throws BusinessException 游標格式無效
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new BusinessException("無效的分頁游標", ErrorCodes.INVALID_CURSOR);
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("無效的分頁游標", ErrorCodes.INVALID_CURSOR);
+        }
+    }
+}
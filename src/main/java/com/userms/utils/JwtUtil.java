@@ -1,36 +1,89 @@
 package com.userms.utils;
 
+import com.userms.security.JwtKeyManager;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    /**
+     * 自訂 Claim 名稱
+     */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_PERMISSIONS = "perms";
+
+    private final JwtKeyManager jwtKeyManager;
 
     @Value("${app.jwt.expiration}")
     private Long jwtExpiration;
 
     /**
-     * 取得簽名密鑰
-     * 新版本使用 SecretKey 取代 Key
+     * Parser 只在啟動時建立一次
+     * JwtParser 為不可變且執行緒安全，可在所有請求間共用；
+     * 驗證金鑰由 JwtKeyManager 依 header 的 kid 提供，金鑰輪替時不需重建 Parser
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(jwtKeyManager)
+                .build();
+    }
+
+    /**
+     * 解析並驗證 Token（單次解析）
+     * 簽名、格式與到期時間在同一次解析中完成驗證
+     *
+     * @param token JWT Token
+     * @return 已驗證的 Token
+     * @throws IllegalArgumentException Token 無效或已過期
+     */
+    public VerifiedToken verifyToken(String token) {
+        if (!isValidFormat(token)) {
+            throw new IllegalArgumentException("Invalid JWT token format");
+        }
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            return toVerifiedToken(claims);
+        } catch (JwtException e) {
+            log.debug("JWT verification failed: {}", e.getMessage());
+            throw new IllegalArgumentException("Invalid JWT token", e);
+        }
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(CLAIM_USER_ID, String.class),
+                getStringList(claims, CLAIM_ROLES),
+                getStringList(claims, CLAIM_PERMISSIONS),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null,
+                claims);
     }
 
     /**
@@ -40,23 +93,67 @@ public class JwtUtil {
      * @return JWT Token
      */
     public String generateToken(String username) {
-        return createToken(username);
+        return createToken(username, null, null, null);
+    }
+
+    /**
+     * 生成攜帶角色與權限的 JWT Token
+     * 過濾器可直接由 Claims 建立授權資訊，不需每次請求查詢資料庫
+     *
+     * @param userId      使用者 ID
+     * @param username    使用者名稱
+     * @param roles       啟用中的角色代碼
+     * @param permissions 權限代碼
+     * @return JWT Token
+     */
+    public String generateToken(String userId, String username,
+                                Collection<String> roles, Collection<String> permissions) {
+        return createToken(username, userId, roles, permissions);
     }
 
     /**
      * 建立 Token
      * 使用新的 builder API，移除已棄用的 SignatureAlgorithm
      */
-    private String createToken(String subject) {
+    private String createToken(String subject, String userId,
+                               Collection<String> roles, Collection<String> permissions) {
         Instant now = Instant.now();
         Instant expiry = now.plus(jwtExpiration, ChronoUnit.MILLIS);
 
-        return Jwts.builder()
+        JwtKeyManager.ActiveKey signingKey = jwtKeyManager.getSigningKey();
+
+        var builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(Date.from(now))
-                .expiration(Date.from(expiry))
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(Date.from(expiry));
+
+        if (userId != null) {
+            builder.claim(CLAIM_USER_ID, userId);
+        }
+        if (roles != null) {
+            builder.claim(CLAIM_ROLES, List.copyOf(roles));
+        }
+        if (permissions != null) {
+            builder.claim(CLAIM_PERMISSIONS, List.copyOf(permissions));
+        }
+
+        if (signingKey.kid() != null) {
+            builder.header().keyId(signingKey.kid()).and();
+        }
+
+        return builder.signWith(signingKey.key()).compact();
+    }
+
+    /**
+     * 讀取字串陣列型態的 Claim，不存在時回傳 null
+     */
+    private static List<String> getStringList(Claims claims, String name) {
+        Object value = claims.get(name);
+        if (!(value instanceof Collection<?> collection)) {
+            return null;
+        }
+        return collection.stream().map(String::valueOf).toList();
     }
 
     /**
@@ -87,11 +184,7 @@ public class JwtUtil {
      */
     private Claims getAllClaimsFromToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             log.warn("Failed to parse JWT token: {}", e.getMessage());
             throw new IllegalArgumentException("Invalid JWT token", e);
@@ -113,11 +206,12 @@ public class JwtUtil {
 
     /**
      * 驗證 Token 有效性
+     * 解析時已一併檢查到期時間，不需再次解析
      */
     public Boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return username.equals(tokenUsername) && !isTokenExpired(token);
+            VerifiedToken verified = verifyToken(token);
+            return username.equals(verified.subject()) && !verified.isExpiredAt(Instant.now());
         } catch (Exception e) {
             log.warn("Token validation failed: {}", e.getMessage());
             return false;
@@ -141,6 +235,29 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * 從現有的 Token 刷新生成新 Token，並帶入最新的角色與權限
+     */
+    public String refreshToken(String token, String userId,
+                               Collection<String> roles, Collection<String> permissions) {
+        try {
+            Claims claims = getAllClaimsFromTokenIgnoringExpiration(token);
+            String username = claims.getSubject();
+
+            if (username == null || username.trim().isEmpty()) {
+                throw new IllegalArgumentException("Token 中沒有用戶名信息");
+            }
+
+            String newToken = generateToken(userId, username, roles, permissions);
+            log.info("Token 刷新成功 for user: {}", username);
+            return newToken;
+
+        } catch (Exception e) {
+            log.error("Token 刷新失敗: {}", e.getMessage());
+            throw new RuntimeException("無法刷新 Token: " + e.getMessage());
+        }
+    }
+
     /**
      * 從現有的 Token 刷新生成新 Token
      * 保持相同的用戶信息，但更新過期時間
@@ -166,17 +283,21 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * 解析 Token（忽略過期檢查，簽名仍需有效）
+     * 用於 Token 刷新前檢查撤銷狀態
+     */
+    public VerifiedToken readTokenIgnoringExpiration(String token) {
+        return toVerifiedToken(getAllClaimsFromTokenIgnoringExpiration(token));
+    }
+
     /**
      * 獲取 Token 中的所有 Claims（忽略過期檢查）
      * 用於 Token 刷新場景
      */
     private Claims getAllClaimsFromTokenIgnoringExpiration(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             // Token 已過期，但我們仍然可以獲取其 Claims 用於刷新
             log.debug("Token expired but extracting claims for refresh: {}", e.getMessage());
@@ -221,12 +342,18 @@ public class JwtUtil {
 
     /**
      * 檢查 Token 格式是否正確
+     * 直接計算分隔點數量，避免正規表示式與陣列配置
      */
     public Boolean isValidFormat(String token) {
-        if (token == null || token.trim().isEmpty()) {
+        if (token == null || token.isBlank()) {
             return false;
         }
-        String[] parts = token.split("\\.");
-        return parts.length == 3;
+        int dots = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) == '.' && ++dots > 2) {
+                return false;
+            }
+        }
+        return dots == 2;
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.userms.utils;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 已驗證的 JWT Token
+ * 由 {@link JwtUtil#verifyToken(String)} 一次解析並驗證簽名後產生，
+ * 之後的讀取都不需要再次解析或計算 HMAC
+ *
+ * @param tokenId     Token 識別碼 jti（舊版 Token 為 null）
+ * @param subject     使用者名稱
+ * @param userId      使用者 ID（舊版 Token 可能為 null）
+ * @param roles       啟用中的角色代碼（舊版 Token 為 null）
+ * @param permissions 權限代碼（舊版 Token 為 null）
+ * @param issuedAt    簽發時間
+ * @param expiresAt   到期時間
+ * @param claims      所有 Claims（唯讀）
+ */
+public record VerifiedToken(String tokenId,
+                            String subject,
+                            String userId,
+                            List<String> roles,
+                            List<String> permissions,
+                            Instant issuedAt,
+                            Instant expiresAt,
+                            Claims claims) {
+
+    /**
+     * 是否為攜帶角色資訊的 Token
+     */
+    public boolean hasAuthorities() {
+        return roles != null;
+    }
+
+    /**
+     * 檢查 Token 在指定時間點是否已過期
+     */
+    public boolean isExpiredAt(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    /**
+     * 取得 Token 剩餘有效時間（毫秒）
+     */
+    public long remainingMillis() {
+        return expiresAt == null ? 0L : expiresAt.toEpochMilli() - System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,27 @@
+-- JWT 非對稱簽名金鑰表（多節點共用，支援金鑰輪替）
+-- 每個演算法的 generation 唯一：多個節點同時輪替時只有一個節點能寫入下一把金鑰，
+-- 其餘節點違反唯一約束後改為載入既有金鑰
+CREATE TABLE jwt_signing_keys (
+    kid             VARCHAR2(36)        NOT NULL,
+    algorithm       VARCHAR2(10)        NOT NULL,
+    generation      NUMBER(19)          NOT NULL,
+    public_key      VARCHAR2(1000)      NOT NULL,
+    private_key     VARCHAR2(2000)      NOT NULL,
+    activated_time  TIMESTAMP           NOT NULL,
+    expires_time    TIMESTAMP           NOT NULL,
+    created_time    TIMESTAMP           NOT NULL,
+
+    CONSTRAINT pk_jwt_signing_keys PRIMARY KEY (kid),
+    CONSTRAINT uk_jwt_signing_keys_generation UNIQUE (algorithm, generation)
+);
+
+CREATE INDEX idx_jwt_signing_keys_expires ON jwt_signing_keys (expires_time);
+
+COMMENT ON COLUMN jwt_signing_keys.kid IS '金鑰識別碼（JWT header kid）';
+COMMENT ON COLUMN jwt_signing_keys.algorithm IS '簽名演算法（例如：ES256）';
+COMMENT ON COLUMN jwt_signing_keys.generation IS '輪替序號（同一演算法內唯一）';
+COMMENT ON COLUMN jwt_signing_keys.public_key IS '公鑰（X.509，Base64）';
+COMMENT ON COLUMN jwt_signing_keys.private_key IS '私鑰（PKCS#8，以 key-encryption-key 進行 AES-GCM 加密後 Base64）';
+COMMENT ON COLUMN jwt_signing_keys.activated_time IS '開始用於簽名的時間';
+COMMENT ON COLUMN jwt_signing_keys.expires_time IS '停止用於驗證的時間';
+COMMENT ON COLUMN jwt_signing_keys.created_time IS '建立時間';
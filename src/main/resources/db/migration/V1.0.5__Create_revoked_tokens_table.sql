@@ -0,0 +1,24 @@
+-- 已撤銷 Token 清單（登出、停用帳戶、變更密碼）
+-- TOKEN：撤銷單一 Token（以 jti 識別）
+-- USER：撤銷使用者在 revoked_time 之前簽發的所有 Token
+CREATE TABLE revoked_tokens (
+    id              VARCHAR2(36)        NOT NULL,
+    jti             VARCHAR2(36),
+    user_id         VARCHAR2(36),
+    revoke_type     VARCHAR2(10)        NOT NULL,
+    expires_time    TIMESTAMP           NOT NULL,
+    revoked_time    TIMESTAMP           NOT NULL,
+
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (id),
+    CONSTRAINT ck_revoked_tokens_type CHECK (revoke_type IN ('TOKEN', 'USER'))
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_time);
+CREATE INDEX idx_revoked_tokens_revoked ON revoked_tokens (revoked_time);
+
+COMMENT ON COLUMN revoked_tokens.id IS '主鍵';
+COMMENT ON COLUMN revoked_tokens.jti IS 'Token 識別碼（revoke_type = TOKEN）';
+COMMENT ON COLUMN revoked_tokens.user_id IS '使用者 ID';
+COMMENT ON COLUMN revoked_tokens.revoke_type IS '撤銷類型：TOKEN / USER';
+COMMENT ON COLUMN revoked_tokens.expires_time IS '撤銷紀錄到期時間（之後受影響的 Token 均已失效）';
+COMMENT ON COLUMN revoked_tokens.revoked_time IS '撤銷時間';
@@ -0,0 +1,5 @@
+-- 游標分頁索引：ORDER BY created_time DESC, id DESC 與 (created_time, id) < (?, ?) 的 seek 條件
+-- 可直接以索引範圍掃描取得一頁資料，不需排序也不需跳過前面的資料列
+CREATE INDEX idx_users_created_id ON users (created_time, id);
+CREATE INDEX idx_roles_created_id ON roles (created_time, id);
+CREATE INDEX idx_permissions_created_id ON permissions (created_time, id);
@@ -0,0 +1,5 @@
+-- 進階搜索索引：前綴比對（col LIKE 'abc%'）與等值條件可使用索引範圍掃描
+-- username、email、role_code、role_name、permission_code 已有唯一約束索引
+CREATE INDEX idx_users_first_name ON users (first_name);
+CREATE INDEX idx_users_last_name ON users (last_name);
+CREATE INDEX idx_permissions_resource_action ON permissions (resource_name, action_type);
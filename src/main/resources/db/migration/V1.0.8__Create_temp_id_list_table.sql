@@ -0,0 +1,10 @@
+-- 大量 ID 查詢用的全域暫存表（ChunkedInListExecutor）
+-- ID 數量超過門檻時，先以 JDBC batch 寫入此表，再以子查詢取代 IN 清單，
+-- 整批只需一個 SQL 與一個執行計畫；資料只對目前交易可見，提交或回滾時自動清除
+CREATE GLOBAL TEMPORARY TABLE tmp_id_list (
+    id              VARCHAR2(36)        NOT NULL,
+
+    CONSTRAINT pk_tmp_id_list PRIMARY KEY (id)
+) ON COMMIT DELETE ROWS;
+
+COMMENT ON COLUMN tmp_id_list.id IS '本次查詢的 ID';
@@ -0,0 +1,174 @@
+package com.userms.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChunkedInListExecutorTest {
+
+    private ChunkedInListExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void distinctRemovesNullsAndDuplicatesKeepingOrder() {
+        List<String> ids = Arrays.asList("b", null, "a", "b", null, "c", "a");
+
+        assertThat(ChunkedInListExecutor.distinct(ids)).containsExactly("b", "a", "c");
+        assertThat(ChunkedInListExecutor.distinct(Collections.singletonList(null))).isEmpty();
+    }
+
+    @Test
+    void padRoundsUpToNextBindShapeWithLastValue() {
+        assertThat(ChunkedInListExecutor.pad(List.of("a"))).hasSize(10).containsOnly("a");
+        assertThat(ChunkedInListExecutor.pad(ids(10))).isEqualTo(ids(10));
+        assertThat(ChunkedInListExecutor.pad(ids(11))).hasSize(50);
+        assertThat(ChunkedInListExecutor.pad(ids(500))).hasSize(500);
+        assertThat(ChunkedInListExecutor.pad(ids(501))).hasSize(1000);
+
+        List<String> padded = ChunkedInListExecutor.pad(ids(3));
+        assertThat(padded.subList(0, 3)).isEqualTo(ids(3));
+        assertThat(padded.subList(3, padded.size())).containsOnly("id2");
+    }
+
+    @Test
+    void chunksSplitAtOracleLimitAndPadTheRemainder() {
+        List<List<String>> chunks = ChunkedInListExecutor.chunks(ids(2_501));
+
+        assertThat(chunks).extracting(List::size).containsExactly(1000, 1000, 1000);
+        assertThat(chunks.get(2).get(0)).isEqualTo("id2000");
+        assertThat(chunks.get(2).subList(501, 1000)).containsOnly("id2500");
+        assertThat(ChunkedInListExecutor.chunks(ids(1_000))).extracting(List::size).containsExactly(1000);
+        assertThat(ChunkedInListExecutor.chunks(List.of())).isEmpty();
+    }
+
+    @Test
+    void queryChunksBelowTempTableThreshold() {
+        executor = newExecutor(1, 1_000);
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        List<String> result = executor.query(withDuplicates(1_500), chunk -> {
+            chunkSizes.add(chunk.size());
+            return List.of("chunk");
+        }, () -> List.of("temp"));
+
+        assertThat(result).containsExactly("temp");
+        assertThat(chunkSizes).isEmpty();
+
+        List<String> chunked = executor.query(withDuplicates(900), chunk -> {
+            chunkSizes.add(chunk.size());
+            return List.of("chunk");
+        }, () -> List.of("temp"));
+
+        assertThat(chunked).containsExactly("chunk");
+        assertThat(chunkSizes).containsExactly(1000);
+    }
+
+    @Test
+    void queryWithoutTempTableVersionAlwaysChunks() {
+        executor = newExecutor(1, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        executor.query(ids(2_500), chunk -> {
+            calls.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void queryOnNullOnlyIdsSkipsTheDatabase() {
+        executor = newExecutor(1, 1_000);
+
+        List<String> result = executor.query(Collections.singletonList(null), chunk -> {
+            throw new AssertionError("should not query");
+        });
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void updateUsesTempTableAboveThreshold() {
+        executor = newExecutor(1, 1_000);
+
+        int updated = executor.update(ids(1_001), chunk -> {
+            throw new AssertionError("should use temp table");
+        }, () -> 1_001);
+
+        assertThat(updated).isEqualTo(1_001);
+    }
+
+    @Test
+    void queryParallelRunsChunksOnWorkerThreadsAndKeepsChunkOrder() {
+        executor = newExecutor(4, 1_000);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<String> result = executor.queryParallel(ids(3_000), chunk -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of(chunk.get(0));
+        });
+
+        assertThat(result).containsExactly("id0", "id1000", "id2000");
+        assertThat(threads).allMatch(name -> name.startsWith("in-list-query-"));
+    }
+
+    @Test
+    void queryParallelFallsBackToCallerThreadInsideTransaction() {
+        executor = newExecutor(4, 1_000);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        String caller = Thread.currentThread().getName();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<String> result = executor.queryParallel(ids(3_000), chunk -> {
+            threads.add(Thread.currentThread().getName());
+            return List.of(chunk.get(0));
+        });
+
+        assertThat(result).containsExactly("id0", "id1000", "id2000");
+        assertThat(threads).containsExactly(caller);
+    }
+
+    private static ChunkedInListExecutor newExecutor(int parallelism, int tempTableThreshold) {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        return new ChunkedInListExecutor(entityManager, mock(PlatformTransactionManager.class),
+                parallelism, tempTableThreshold);
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "id" + i).toList();
+    }
+
+    /**
+     * 每個 ID 重複兩次並夾雜 null，去重後為 count 筆
+     */
+    private static List<String> withDuplicates(int count) {
+        List<String> ids = new ArrayList<>(ids(count));
+        ids.addAll(ids(count));
+        ids.add(null);
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.userms.repository;
+
+import com.userms.common.CursorResult;
+import com.userms.entity.Role;
+import com.userms.utils.CursorCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPagerTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void extraRowYieldsCursorOfLastReturnedRow() {
+        List<Role> rows = roles(4);
+
+        CursorResult<String> result = KeysetPager.toCursorResult(rows, 3, KeysetPagerTest::ids);
+
+        assertThat(result.getContent()).containsExactly("r0", "r1", "r2");
+        assertThat(result.isHasNext()).isTrue();
+        CursorCodec.Cursor next = CursorCodec.decode(result.getNextCursor());
+        assertThat(next.id()).isEqualTo("r2");
+        assertThat(next.createdTime()).isEqualTo(BASE.minusMinutes(2));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorResult<String> result = KeysetPager.toCursorResult(roles(3), 3, KeysetPagerTest::ids);
+
+        assertThat(result.getContent()).containsExactly("r0", "r1", "r2");
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    private static List<Role> roles(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Role role = new Role();
+            role.setId("r" + i);
+            role.setCreatedTime(BASE.minusMinutes(i));
+            return role;
+        }).toList();
+    }
+
+    private static List<String> ids(List<Role> roles) {
+        return roles.stream().map(Role::getId).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.userms.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private static final long INTERVAL = Duration.ofSeconds(10).toNanos();
+
+    @Test
+    void resetRestoresQuotaForSoleOwner() {
+        LoginThrottle.Bucket bucket = new LoginThrottle.Bucket(1024, 2, Duration.ofSeconds(10), 42L);
+        long now = 1L;
+
+        assertThat(bucket.tryAcquire("alice", now)).isZero();
+        assertThat(bucket.tryAcquire("alice", now)).isZero();
+        assertThat(bucket.tryAcquire("alice", now)).isPositive();
+
+        bucket.reset("ALICE");
+
+        assertThat(bucket.tryAcquire("alice", now)).isZero();
+    }
+
+    @Test
+    void collidingKeyCannotResetAnotherKeysQuota() {
+        LoginThrottle.Bucket bucket = new LoginThrottle.Bucket(2, 3, Duration.ofSeconds(10), 42L);
+        String victim = "victim";
+        String attacker = collidingKey(bucket, victim);
+        long now = 1L;
+
+        assertThat(bucket.tryAcquire(victim, now)).isZero();
+        assertThat(bucket.tryAcquire(attacker, now)).isZero();
+        bucket.reset(attacker);
+
+        assertThat(bucket.tryAcquire(victim, now)).isZero();
+        bucket.reset(attacker);
+
+        assertThat(bucket.tryAcquire(victim, now)).isPositive();
+    }
+
+    @Test
+    void sharedSlotIsReclaimedOnceFullyReplenished() {
+        LoginThrottle.Bucket bucket = new LoginThrottle.Bucket(2, 2, Duration.ofSeconds(10), 42L);
+        String victim = "victim";
+        String other = collidingKey(bucket, victim);
+        long now = 1L;
+
+        assertThat(bucket.tryAcquire(victim, now)).isZero();
+        assertThat(bucket.tryAcquire(other, now)).isZero();
+
+        long later = now + 3 * INTERVAL;
+        assertThat(bucket.tryAcquire(other, later)).isZero();
+        assertThat(bucket.tryAcquire(other, later)).isZero();
+        bucket.reset(other);
+
+        assertThat(bucket.tryAcquire(other, later)).isZero();
+    }
+
+    @Test
+    void slotDependsOnSeed() {
+        LoginThrottle.Bucket first = new LoginThrottle.Bucket(65536, 5, Duration.ofSeconds(12), 1L);
+        LoginThrottle.Bucket second = new LoginThrottle.Bucket(65536, 5, Duration.ofSeconds(12), 2L);
+
+        int differing = 0;
+        for (int i = 0; i < 64; i++) {
+            if (first.slotOf("user" + i) != second.slotOf("user" + i)) {
+                differing++;
+            }
+        }
+        assertThat(differing).isGreaterThan(32);
+    }
+
+    private static String collidingKey(LoginThrottle.Bucket bucket, String key) {
+        int slot = bucket.slotOf(key);
+        for (int i = 0; ; i++) {
+            String candidate = "user" + i;
+            if (bucket.slotOf(candidate) == slot) {
+                return candidate;
+            }
+        }
+    }
+}
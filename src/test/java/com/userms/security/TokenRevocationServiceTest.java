@@ -0,0 +1,60 @@
+package com.userms.security;
+
+import com.userms.repository.RevokedTokenRepository;
+import com.userms.utils.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(mock(RevokedTokenRepository.class), mock(EntityManager.class),
+                new SimpleMeterRegistry(), Duration.ofHours(24).toMillis(), 1000, 0.01, 1000, 500,
+                Duration.ofSeconds(30));
+    }
+
+    @Test
+    void tokenIssuedEarlierInSameSecondAsRevocationIsRevoked() {
+        // JWT 的 iat 只精確到秒
+        VerifiedToken token = token("user-1", Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        service.revokeAllForUser("user-1");
+
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void tokenIssuedInLaterSecondIsNotRevoked() {
+        service.revokeAllForUser("user-1");
+
+        VerifiedToken token = token("user-1", Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(service.isRevoked(token)).isFalse();
+    }
+
+    @Test
+    void revocationDoesNotAffectOtherUsers() {
+        VerifiedToken token = token("user-2", Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        service.revokeAllForUser("user-1");
+
+        assertThat(service.isRevoked(token)).isFalse();
+    }
+
+    private static VerifiedToken token(String userId, Instant issuedAt) {
+        return new VerifiedToken("jti-" + userId, userId, userId, null, null,
+                issuedAt, issuedAt.plus(Duration.ofHours(24)), null);
+    }
+}
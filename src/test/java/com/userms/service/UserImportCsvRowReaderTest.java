@@ -0,0 +1,111 @@
+package com.userms.service;
+
+import com.userms.common.ErrorCodes;
+import com.userms.dto.UserRegisterDTO;
+import com.userms.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportCsvRowReaderTest {
+
+    @Test
+    void readsColumnsByHeaderNameIgnoringCaseAndOrder() throws IOException {
+        UserImportService.CsvRowReader reader = reader("""
+                Email,USERNAME,password,firstName
+                alice@example.com,alice,Secret1!,Alice
+                """);
+
+        UserImportService.ImportRow row = reader.next();
+
+        assertThat(row.row()).isEqualTo(1);
+        assertThat(row.user().getUsername()).isEqualTo("alice");
+        assertThat(row.user().getEmail()).isEqualTo("alice@example.com");
+        assertThat(row.user().getPassword()).isEqualTo("Secret1!");
+        assertThat(row.user().getFirstName()).isEqualTo("Alice");
+        assertThat(row.user().getLastName()).isNull();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasNewlinesAndEscapedQuotes() throws IOException {
+        UserImportService.CsvRowReader reader = reader(
+                "username,email,password,firstName,lastName\n"
+                        + "bob,bob@example.com,\"Pa,ss1!\",\"Line1\nLine2\",\"O\"\"Brien\"\n");
+
+        UserRegisterDTO user = reader.next().user();
+
+        assertThat(user.getPassword()).isEqualTo("Pa,ss1!");
+        assertThat(user.getFirstName()).isEqualTo("Line1\nLine2");
+        assertThat(user.getLastName()).isEqualTo("O\"Brien");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void stripsByteOrderMarkAndCarriageReturns() throws IOException {
+        UserImportService.CsvRowReader reader = reader(
+                "\uFEFFusername,email,password\r\ncarol,carol@example.com,Secret1!\r\n");
+
+        UserRegisterDTO user = reader.next().user();
+
+        assertThat(user.getUsername()).isEqualTo("carol");
+        assertThat(user.getPassword()).isEqualTo("Secret1!");
+    }
+
+    @Test
+    void skipsBlankLinesAndTreatsEmptyFieldsAsNull() throws IOException {
+        UserImportService.CsvRowReader reader = reader("""
+                username,email,password,lastName
+
+                dave,dave@example.com,Secret1!,
+                """);
+
+        UserImportService.ImportRow row = reader.next();
+
+        assertThat(row.row()).isEqualTo(1);
+        assertThat(row.user().getUsername()).isEqualTo("dave");
+        assertThat(row.user().getLastName()).isNull();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void shortRecordsLeaveMissingColumnsNull() throws IOException {
+        UserImportService.CsvRowReader reader = reader("""
+                username,email,password
+                erin
+                """);
+
+        UserRegisterDTO user = reader.next().user();
+
+        assertThat(user.getUsername()).isEqualTo("erin");
+        assertThat(user.getEmail()).isNull();
+        assertThat(user.getPassword()).isNull();
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumn() {
+        assertThatThrownBy(() -> reader("""
+                username,email
+                frank,frank@example.com
+                """))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("password")
+                .extracting("errorCode").isEqualTo(ErrorCodes.INVALID_REQUEST_FORMAT);
+    }
+
+    @Test
+    void rejectsEmptyInput() {
+        assertThatThrownBy(() -> reader(""))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCodes.INVALID_REQUEST_FORMAT);
+    }
+
+    private static UserImportService.CsvRowReader reader(String content) throws IOException {
+        return new UserImportService.CsvRowReader(new BufferedReader(new StringReader(content)));
+    }
+}